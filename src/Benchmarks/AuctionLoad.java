@@ -0,0 +1,180 @@
+package Benchmarks;
+
+import Game.AuctionHouse;
+import Game.Order;
+import Items.Item;
+import Items.ItemCatalog;
+import Utility.AllObjectsLoader;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Local load generator for the {@link AuctionHouse}.
+ *
+ * Each thread plays a group of traders that keep posting buy and sell
+ * orders for random catalog items, priced within 10% of the item's base
+ * price so that roughly half of them match immediately, and now and then
+ * cancel an open order. Reports the order rate and the latency of
+ * placing an order (including matching), measured on every order.
+ *
+ * Afterwards every open order is cancelled and every account collected,
+ * and the totals are checked: all gold paid into escrow and all copies
+ * handed over must come back out, to one side or the other.
+ *
+ * Run from the project root:
+ * {@code java Benchmarks.AuctionLoad [threads] [millis]}
+ */
+public class AuctionLoad {
+
+    /**
+     * Traders simulated by each thread.
+     */
+    private static final int tradersPerThread = 16;
+
+    /**
+     * One order in this many is followed by cancelling a recent order.
+     */
+    private static final int cancelEvery = 10;
+
+    /**
+     * Number of recent orders each thread remembers as cancel candidates.
+     */
+    private static final int recentOrders = 256;
+
+    /**
+     * Per-thread results.
+     */
+    private static final class Worker implements Runnable {
+        private final AuctionHouse house;
+        private final List<Item> items;
+        private final int firstTrader;
+        private final SplittableRandom random;
+        private final CountDownLatch start;
+        private final long deadline;
+
+        long orders;
+        long goldIn;
+        long[] copiesIn;
+        long[] latencies = new long[1 << 16];
+        final Order[] recent = new Order[recentOrders];
+
+        Worker(AuctionHouse house, List<Item> items, int firstTrader, long seed, CountDownLatch start, long deadline) {
+            this.house = house;
+            this.items = items;
+            this.firstTrader = firstTrader;
+            this.random = new SplittableRandom(seed);
+            this.start = start;
+            this.deadline = deadline;
+            this.copiesIn = new long[items.size()];
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            while (System.nanoTime() < deadline) {
+                int trader = firstTrader + random.nextInt(tradersPerThread);
+                Item item = items.get(random.nextInt(items.size()));
+                int price = Math.max(1, item.getPrice() * (90 + random.nextInt(21)) / 100);
+                int quantity = 1 + random.nextInt(5);
+                boolean buy = random.nextBoolean();
+
+                long before = System.nanoTime();
+                Order order = buy ? house.placeBuy(trader, item, price, quantity)
+                                  : house.placeSell(trader, item, price, quantity);
+                long elapsed = System.nanoTime() - before;
+
+                if (buy) {
+                    goldIn += (long) price * quantity;
+                } else {
+                    copiesIn[item.getId()] += quantity;
+                }
+                if (orders == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, latencies.length * 2);
+                }
+                recent[(int) (orders % recentOrders)] = order;
+                latencies[(int) orders++] = elapsed;
+
+                if (random.nextInt(cancelEvery) == 0) {
+                    Order victim = recent[random.nextInt((int) Math.min(orders, recentOrders))];
+                    house.cancel(victim);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        ItemCatalog catalog = AllObjectsLoader.loadAllObjects().getCatalog();
+        AuctionHouse house = new AuctionHouse(catalog);
+
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        Worker[] workers = new Worker[threads];
+        Thread[] running = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Worker(house, catalog.getItems(), t * tradersPerThread + 1, t, start, deadline);
+            running[t] = new Thread(workers[t]);
+            running[t].start();
+        }
+        start.countDown();
+        for (Thread thread : running) {
+            thread.join();
+        }
+
+        long orders = 0;
+        long goldIn = 0;
+        long[] copiesIn = new long[catalog.size()];
+        for (Worker worker : workers) {
+            orders += worker.orders;
+            goldIn += worker.goldIn;
+            for (int i = 0; i < copiesIn.length; i++) {
+                copiesIn[i] += worker.copiesIn[i];
+            }
+        }
+        long[] latencies = new long[(int) orders];
+        int filled = 0;
+        for (Worker worker : workers) {
+            System.arraycopy(worker.latencies, 0, latencies, filled, (int) worker.orders);
+            filled += (int) worker.orders;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("Threads: %d, orders: %,d, rate: %,d orders/s%n",
+                threads, orders, (long) (orders / (millis / 1000.0)));
+        if (orders > 0) {
+            System.out.printf("Latency (us): p50 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                    percentile(latencies, 0.50), percentile(latencies, 0.99),
+                    percentile(latencies, 0.999), latencies[latencies.length - 1] / 1000.0);
+        }
+
+        // Settle everything and check nothing was created or lost.
+        long goldOut = 0;
+        long[] copiesOut = new long[catalog.size()];
+        for (int trader = 1; trader <= threads * tradersPerThread; trader++) {
+            for (Order order : house.openOrders(trader)) {
+                house.cancel(order);
+            }
+            AuctionHouse.Settlement settlement = house.collect(trader);
+            goldOut += settlement.getGold();
+            settlement.getItems().forEach((id, count) -> copiesOut[id] += count);
+        }
+        boolean balanced = goldOut == goldIn && Arrays.equals(copiesIn, copiesOut);
+        System.out.println(balanced ? "Settlement check passed: all escrow accounted for."
+                                    : "Settlement check FAILED: gold in " + goldIn + ", out " + goldOut);
+        if (!balanced) {
+            System.exit(1);
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1000.0;
+    }
+}
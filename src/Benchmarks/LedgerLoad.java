@@ -0,0 +1,143 @@
+package Benchmarks;
+
+import Game.TransactionLedger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Load benchmark for the market {@link TransactionLedger}.
+ *
+ * Several threads append random trades to one ledger, as markets in
+ * different sessions would, then the volume-per-item and gold-flow-per-hero
+ * aggregations are timed over the whole file. Every thread also keeps its
+ * own totals, and the aggregations must match them exactly (no record lost
+ * or torn by concurrent appends). The ledger is then reopened to check that
+ * every record survived closing.
+ *
+ * Run with:
+ * {@code java Benchmarks.LedgerLoad [ledgerFile] [records] [threads]}
+ * The ledger file is deleted first if it exists.
+ */
+public class LedgerLoad {
+
+    /**
+     * Distinct items and heroes trades are spread over.
+     */
+    private static final int items = 30;
+    private static final int heroes = 64;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path file = Paths.get(args.length > 0 ? args[0] : "ledger-load.bin");
+        long records = args.length > 1 ? Long.parseLong(args[1]) : 5_000_000L;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Files.deleteIfExists(file);
+
+        long[] expectedVolume = new long[items];
+        long[] expectedFlow = new long[heroes];
+        long appendNanos;
+        int run;
+        try (TransactionLedger ledger = TransactionLedger.open(file)) {
+            run = ledger.getRun();
+            appendNanos = append(ledger, records, threads, expectedVolume, expectedFlow);
+        }
+        System.out.printf("Appended %,d records with %d threads in %d ms (%,d records/s).%n",
+                records, threads, appendNanos / 1_000_000, (long) (records / (appendNanos / 1e9)));
+
+        try (TransactionLedger ledger = TransactionLedger.open(file)) {
+            if (ledger.size() != records) {
+                throw new IllegalStateException("Reopened ledger has " + ledger.size() + " records, expected " + records);
+            }
+
+            long start = System.nanoTime();
+            long[] volume = ledger.volumeByItem(items);
+            long volumeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long[][] flow = ledger.goldFlowByHero(run);
+            long flowNanos = System.nanoTime() - start;
+
+            for (int i = 0; i < items; i++) {
+                if (volume[i] != expectedVolume[i]) {
+                    throw new IllegalStateException("Volume of item " + i + " is " + volume[i]
+                            + ", expected " + expectedVolume[i]);
+                }
+            }
+            for (long[] row : flow) {
+                if (row[1] != expectedFlow[(int) row[0]]) {
+                    throw new IllegalStateException("Gold flow of hero " + row[0] + " is " + row[1]
+                            + ", expected " + expectedFlow[(int) row[0]]);
+                }
+            }
+            System.out.printf("Volume per item:    %d ms (%,d records/s)%n",
+                    volumeNanos / 1_000_000, (long) (records / (volumeNanos / 1e9)));
+            System.out.printf("Gold flow per hero: %d ms (%,d records/s)%n",
+                    flowNanos / 1_000_000, (long) (records / (flowNanos / 1e9)));
+            System.out.println("Aggregations match the appended trades.");
+        }
+        Files.delete(file);
+    }
+
+    /**
+     * Append random trades from several threads, adding each one into the
+     * expected totals.
+     *
+     * @return time taken, in nanoseconds
+     */
+    private static long append(TransactionLedger ledger, long records, int threads,
+                               long[] expectedVolume, long[] expectedFlow) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long[][] volumes = new long[threads][items];
+        long[][] flows = new long[threads][heroes];
+        IOException[] failure = new IOException[1];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            long share = records / threads + (t < records % threads ? 1 : 0);
+            workers[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(id);
+                try {
+                    start.await();
+                    for (long n = 0; n < share; n++) {
+                        int hero = random.nextInt(heroes);
+                        int item = random.nextInt(items);
+                        int quantity = random.nextInt(1, 10) * (random.nextBoolean() ? 1 : -1);
+                        int price = random.nextInt(1, 2000);
+                        ledger.append(n, hero, item, quantity, price, id);
+                        volumes[id][item] += Math.abs(quantity);
+                        flows[id][hero] -= (long) quantity * price;
+                    }
+                } catch (IOException e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        if (failure[0] != null) {
+            throw new IllegalStateException("Append failed", failure[0]);
+        }
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < items; i++) {
+                expectedVolume[i] += volumes[t][i];
+            }
+            for (int h = 0; h < heroes; h++) {
+                expectedFlow[h] += flows[t][h];
+            }
+        }
+        return elapsed;
+    }
+}
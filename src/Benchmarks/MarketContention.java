@@ -0,0 +1,173 @@
+package Benchmarks;
+
+import Game.MarketStock;
+import Items.ItemCatalog;
+import Utility.AllObjectsLoader;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention benchmark for shared markets.
+ *
+ * Several threads buy from (and sell back to) one {@link MarketStock}
+ * while a reader thread keeps listing a category, as menus do. Each run
+ * compares a {@link MarketStock#shared shared} stock, where buying is a
+ * lock-free compare-and-set, with a single-session stock guarded by one
+ * lock, and reports trades and listings per second.
+ *
+ * Before measuring, a drain check has every thread buy from a slot with a
+ * known number of copies until it is empty, and verifies that exactly
+ * that many purchases succeeded (no copy sold twice, none lost).
+ *
+ * Run from the project root (the resource files are read from
+ * {@code src/resources}):
+ * {@code java Benchmarks.MarketContention [maxThreads] [millisPerRun]}
+ */
+public class MarketContention {
+
+    /**
+     * Number of items all buyers fight over.
+     */
+    private static final int hotItems = 4;
+
+    /**
+     * Copies per item at the start of a run.
+     */
+    private static final int initialCopies = 1000;
+
+    /**
+     * Copies per item in the drain check.
+     */
+    private static final int drainCopies = 200_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        ItemCatalog catalog = AllObjectsLoader.loadAllObjects().getCatalog();
+
+        drainCheck(catalog, maxThreads);
+
+        System.out.printf("%-8s %-10s %15s %15s%n", "Threads", "Stock", "Trades/s", "Listings/s");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            report(threads, "shared", run(MarketStock.shared(catalog), catalog, threads, millis, null));
+            report(threads, "locked", run(new MarketStock(), catalog, threads, millis, new Object()));
+        }
+    }
+
+    /**
+     * Let every thread buy single copies until the slot is empty, and check
+     * that exactly the stocked copies were sold.
+     */
+    private static void drainCheck(ItemCatalog catalog, int threads) throws InterruptedException {
+        MarketStock stock = MarketStock.shared(catalog);
+        int slot = stock.add(catalog.get(0), drainCopies);
+        AtomicLong sold = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                awaitQuietly(start);
+                long mine = 0;
+                while (stock.take(slot)) {
+                    mine++;
+                }
+                sold.addAndGet(mine);
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (sold.get() != drainCopies || stock.getQuantity(slot) != 0) {
+            throw new IllegalStateException("Drain check failed: sold " + sold.get()
+                    + " of " + drainCopies + ", " + stock.getQuantity(slot) + " left");
+        }
+        System.out.printf("Drain check passed: %d threads sold exactly %d copies.%n%n", threads, drainCopies);
+    }
+
+    /**
+     * Run buyers and one reader against a stock for a fixed time.
+     *
+     * @param lock if not null, every stock access is synchronized on it
+     * @return {trades, listings} completed
+     */
+    private static long[] run(MarketStock stock, ItemCatalog catalog, int threads, long millis, Object lock)
+            throws InterruptedException {
+        int[] slots = new int[hotItems];
+        for (int i = 0; i < hotItems; i++) {
+            slots[i] = stock.add(catalog.get(i), initialCopies);
+        }
+
+        AtomicLong trades = new AtomicLong();
+        AtomicLong listings = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        Thread[] workers = new Thread[threads + 1];
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            workers[t] = new Thread(() -> {
+                awaitQuietly(start);
+                long done = 0;
+                int i = first;
+                while (System.nanoTime() < deadline[0]) {
+                    int slot = slots[i++ % hotItems];
+                    // Buy a copy, and sell one back when the slot ran dry,
+                    // so the stock keeps crossing zero and invalidating lists.
+                    if (lock == null) {
+                        if (!stock.take(slot)) {
+                            stock.add(stock.getItem(slot), initialCopies);
+                        }
+                    } else {
+                        synchronized (lock) {
+                            if (!stock.take(slot)) {
+                                stock.add(stock.getItem(slot), initialCopies);
+                            }
+                        }
+                    }
+                    done++;
+                }
+                trades.addAndGet(done);
+            });
+        }
+        workers[threads] = new Thread(() -> {
+            awaitQuietly(start);
+            long done = 0;
+            while (System.nanoTime() < deadline[0]) {
+                if (lock == null) {
+                    stock.inStock(MarketStock.Category.WEAPONS);
+                } else {
+                    synchronized (lock) {
+                        stock.inStock(MarketStock.Category.WEAPONS);
+                    }
+                }
+                done++;
+            }
+            listings.addAndGet(done);
+        });
+
+        deadline[0] = System.nanoTime() + millis * 1_000_000L;
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = millis / 1000.0;
+        return new long[] {(long) (trades.get() / seconds), (long) (listings.get() / seconds)};
+    }
+
+    private static void report(int threads, String kind, long[] rates) {
+        System.out.printf("%-8d %-10s %,15d %,15d%n", threads, kind, rates[0], rates[1]);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package Benchmarks;
+
+import Game.Board;
+import Game.Occupancy;
+import Game.Party;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention benchmark for the board's {@link Occupancy} grid.
+ *
+ * Many parties wander one board, split across several threads that each
+ * move their own parties one random step at a time, so parties driven from
+ * different threads keep racing for the same tiles. Each run reports the
+ * moves per second, then checks that the grid still holds every party
+ * exactly once, on the tile the party thinks it is on (no tile claimed
+ * twice, no party lost or duplicated by a race).
+ *
+ * The game itself moves its few rival parties on the main thread; this
+ * benchmark is where concurrent movement is exercised.
+ *
+ * Run with:
+ * {@code java Benchmarks.OccupancyContention [maxThreads] [millisPerRun] [boardSize] [parties]}
+ */
+public class OccupancyContention {
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int parties = args.length > 3 ? Integer.parseInt(args[3]) : 512;
+
+        System.out.printf("%-8s %15s%n", "Threads", "Moves/s");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            Board board = new Board(size, 42L);
+            List<List<Party>> perThread = place(board, parties, threads);
+            long moves = run(board, perThread, millis);
+            check(board, perThread);
+            System.out.printf("%-8d %,15d%n", threads, (long) (moves / (millis / 1000.0)));
+        }
+        System.out.println("Occupancy check passed after every run.");
+    }
+
+    /**
+     * Place the parties on the board and deal them out to the threads.
+     */
+    private static List<List<Party>> place(Board board, int parties, int threads) {
+        List<List<Party>> perThread = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            perThread.add(new ArrayList<>());
+        }
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < parties; i++) {
+            Party party = new Party(random.nextInt(board.getSize()), random.nextInt(board.getSize()));
+            if (!party.enter(board)) {
+                throw new IllegalStateException("Board too small for " + parties + " parties");
+            }
+            perThread.get(i % threads).add(party);
+        }
+        return perThread;
+    }
+
+    /**
+     * Let every thread move its parties for a fixed time.
+     *
+     * @return attempted moves over all threads
+     */
+    private static long run(Board board, List<List<Party>> perThread, long millis) throws InterruptedException {
+        AtomicLong moves = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        Thread[] workers = new Thread[perThread.size()];
+        for (int t = 0; t < workers.length; t++) {
+            List<Party> mine = perThread.get(t);
+            SplittableRandom random = new SplittableRandom(t);
+            workers[t] = new Thread(() -> {
+                awaitQuietly(start);
+                long done = 0;
+                while (System.nanoTime() < deadline[0]) {
+                    for (Party party : mine) {
+                        party.move("WASD".charAt(random.nextInt(4)), board);
+                    }
+                    done += mine.size();
+                }
+                moves.addAndGet(done);
+            });
+        }
+
+        deadline[0] = System.nanoTime() + millis * 1_000_000L;
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return moves.get();
+    }
+
+    /**
+     * Check that each party holds exactly its own tile and no other.
+     */
+    private static void check(Board board, List<List<Party>> perThread) {
+        Occupancy occupancy = board.getOccupancy();
+        int expected = 0;
+        for (List<Party> mine : perThread) {
+            for (Party party : mine) {
+                if (occupancy.occupantAt(party.getRow(), party.getCol()) != party.getId()) {
+                    throw new IllegalStateException("Party " + party.getId() + " lost its tile ("
+                            + party.getRow() + ", " + party.getCol() + ")");
+                }
+                expected++;
+            }
+        }
+        int occupied = 0;
+        for (int r = 0; r < board.getSize(); r++) {
+            for (int c = 0; c < board.getSize(); c++) {
+                if (occupancy.occupantAt(r, c) != Occupancy.empty) {
+                    occupied++;
+                }
+            }
+        }
+        if (occupied != expected) {
+            throw new IllegalStateException(occupied + " tiles occupied by " + expected + " parties");
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,6 +4,8 @@ import Items.Inventory;
 import Items.Weapon;
 import Items.Armor;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Abstract base class for all hero types (Warrior, Paladin, Sorcerer, etc.).
  * <p>
@@ -14,6 +16,17 @@ import Items.Armor;
  */
 public abstract class Hero extends Entity {
 
+    /**
+     * Source of unique hero ids.
+     */
+    private static final AtomicInteger nextId = new AtomicInteger(1);
+
+    /**
+     * Unique id of this hero, used to identify it as a trader
+     * (e.g. in the auction house).
+     */
+    private final int id = nextId.getAndIncrement();
+
     // --- CORE PROGRESSION STATS ---
 
     /**
@@ -77,6 +90,13 @@ public abstract class Hero extends Entity {
      */
     protected Inventory inventory = new Inventory();
 
+    // --- DERIVED STATS ---
+
+    /**
+     * Cached stat sheet, or null if it must be recomputed.
+     */
+    private HeroStats stats;
+
     /**
      * Construct a Hero with all core stats set.
      *
@@ -107,6 +127,13 @@ public abstract class Hero extends Entity {
 
     // --- BASIC GETTERS ---
 
+    /**
+     * @return unique id of this hero (always positive)
+     */
+    public int getId() {
+        return id;
+    }
+
     public int getBaseHP() {
         return baseHP;
     }
@@ -150,6 +177,27 @@ public abstract class Hero extends Entity {
         return inventory;
     }
 
+    /**
+     * @return the hero's derived combat stats, computed once and reused
+     *         until equipment, level or a stat changes
+     */
+    public HeroStats getStats() {
+        HeroStats sheet = stats;
+        if (sheet == null) {
+            sheet = new HeroStats(this);
+            stats = sheet;
+        }
+        return sheet;
+    }
+
+    /**
+     * Drop the cached stat sheet. Subclasses that change strength,
+     * dexterity, agility or equipment directly must call this.
+     */
+    protected void invalidateStats() {
+        stats = null;
+    }
+
     /**
      * @return the main-hand weapon, or null if none
      */
@@ -189,6 +237,7 @@ public abstract class Hero extends Entity {
         }
 
         int hands = weapon.getHandsRequired();
+        invalidateStats();
 
         if (hands == 2) {
             // Two-handed weapon always occupies both hands
@@ -236,28 +285,21 @@ public abstract class Hero extends Entity {
     public void setEquippedArmor(Armor equippedArmor) {
 
         this.equippedArmor = equippedArmor;
+        invalidateStats();
     }
 
     /**
      * @return total damage provided by all equipped weapons (both hands)
      */
     public int getEquippedWeaponDamage() {
-        int total = 0;
-        if (equippedWeapon != null) {
-            total += equippedWeapon.getDamageValue();
-        }
-        if (offHandWeapon != null) {
-            total += offHandWeapon.getDamageValue();
-        }
-        return total;
+        return getStats().getWeaponDamage();
     }
 
     /**
      * @return damage reduction provided by equipped armor, or 0 if none
      */
     public int getEquippedArmorReduction() {
-
-        return (equippedArmor != null) ? equippedArmor.getDamageReduction() : 0;
+        return getStats().getArmorReduction();
     }
 
     // --- GOLD / MONEY MANAGEMENT ---
@@ -378,6 +420,7 @@ public abstract class Hero extends Entity {
     public void addStrength(int amount) {
 
         strength += amount;
+        invalidateStats();
     }
 
     /**
@@ -386,6 +429,7 @@ public abstract class Hero extends Entity {
     public void addDexterity(int amount) {
 
         dexterity += amount;
+        invalidateStats();
     }
 
     /**
@@ -394,6 +438,7 @@ public abstract class Hero extends Entity {
     public void addAgility(int amount) {
 
         agility += amount;
+        invalidateStats();
     }
 
     // --- EXPERIENCE / LEVELING ---
@@ -433,6 +478,7 @@ public abstract class Hero extends Entity {
 
         // Let subclasses decide how strength/dex/agi grow
         applyLevelUpStatGrowth();
+        invalidateStats();
 
         System.out.printf("%s leveled up to level %d!%n", name, level);
     }
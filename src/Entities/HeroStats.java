@@ -0,0 +1,104 @@
+package Entities;
+
+/**
+ * Derived combat numbers of a hero, worked out from its stats and
+ * equipment: what the battle formulas actually use.
+ *
+ * A sheet is immutable. {@link Hero#getStats()} computes one on first use
+ * and keeps it until something it depends on changes: equipping a weapon
+ * or armor, levelling up, or a potion raising strength, dexterity or
+ * agility. A battle round therefore reads precomputed values instead of
+ * summing weapon damage and redoing the same arithmetic on every attack.
+ */
+public final class HeroStats {
+
+    /**
+     * Share of (strength + weapon damage) dealt by a physical attack.
+     */
+    private static final double attackScale = 0.05;
+
+    /**
+     * Dexterity that adds 100% to spell damage.
+     */
+    private static final double dexterityPerSpellBonus = 10000.0;
+
+    /**
+     * Dodge chance per point of agility, and its cap.
+     */
+    private static final double dodgePerAgility = 0.0005;
+    private static final double maxDodgeChance = 0.5;
+
+    /**
+     * Armor reduction that halves incoming physical damage.
+     */
+    private static final double armorPerHalving = 300.0;
+
+    private final int weaponDamage;
+    private final int armorReduction;
+    private final double attackPower;
+    private final double spellMultiplier;
+    private final double dodgeChance;
+    private final double damageReductionFactor;
+
+    /**
+     * Work out the sheet of a hero as it is now.
+     */
+    HeroStats(Hero hero) {
+        int damage = 0;
+        if (hero.getEquippedWeapon() != null) {
+            damage += hero.getEquippedWeapon().getDamageValue();
+        }
+        if (hero.getOffHandWeapon() != null) {
+            damage += hero.getOffHandWeapon().getDamageValue();
+        }
+        this.weaponDamage = damage;
+        this.armorReduction = hero.getEquippedArmor() == null ? 0 : hero.getEquippedArmor().getDamageReduction();
+        this.attackPower = (hero.getStrength() + weaponDamage) * attackScale;
+        this.spellMultiplier = 1.0 + hero.getDexterity() / dexterityPerSpellBonus;
+        this.dodgeChance = Math.min(maxDodgeChance, hero.getAgility() * dodgePerAgility);
+        this.damageReductionFactor = 1.0 + armorReduction / armorPerHalving;
+    }
+
+    /**
+     * @return total damage of the equipped weapons (both hands)
+     */
+    public int getWeaponDamage() {
+        return weaponDamage;
+    }
+
+    /**
+     * @return damage reduction of the equipped armor, or 0 if none
+     */
+    public int getArmorReduction() {
+        return armorReduction;
+    }
+
+    /**
+     * @return physical attack damage before the target's defense
+     */
+    public double getAttackPower() {
+        return attackPower;
+    }
+
+    /**
+     * @return factor a spell's base damage is multiplied by
+     */
+    public double getSpellMultiplier() {
+        return spellMultiplier;
+    }
+
+    /**
+     * @return chance (0 to 0.5) of dodging a monster's attack
+     */
+    public double getDodgeChance() {
+        return dodgeChance;
+    }
+
+    /**
+     * @return factor incoming physical damage is divided by (1 without
+     *         armor)
+     */
+    public double getDamageReductionFactor() {
+        return damageReductionFactor;
+    }
+}
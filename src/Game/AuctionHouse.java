@@ -0,0 +1,268 @@
+package Game;
+
+import Items.Item;
+import Items.ItemCatalog;
+import Utility.IntIntHashMap;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Player-to-player trading: heroes post buy and sell orders for catalog
+ * items, and a matching engine pairs them up.
+ *
+ * Every catalog item has its own {@link OrderBook} (indexed by item id),
+ * locked on its own, so orders for different items match in parallel and
+ * an order only ever waits for orders on the same item. An incoming order
+ * trades immediately against the best waiting orders whose price it
+ * crosses, at their price, and rests in the book with whatever is left.
+ *
+ * Goods are held in escrow: a buyer pays the full limit price up front and
+ * a seller hands over the copies when placing the order (the caller takes
+ * them from the hero). Proceeds, bought copies, refunds of price
+ * improvements and cancelled escrow are credited to the trader's account
+ * and handed out by {@link #collect(int)}, so a trader does not have to be
+ * present (or in the same session) when a match happens.
+ *
+ * All methods are thread-safe.
+ */
+public class AuctionHouse {
+
+    /**
+     * Returned by {@link #bestBid(Item)} / {@link #bestAsk(Item)} when that
+     * side of the book is empty.
+     */
+    public static final int noPrice = -1;
+
+    /**
+     * What a trader has to collect: gold and copies per catalog id.
+     */
+    public static final class Settlement {
+        private int gold;
+        private final IntIntHashMap items = new IntIntHashMap();
+
+        /**
+         * @return gold to collect
+         */
+        public int getGold() {
+            return gold;
+        }
+
+        /**
+         * @return copies to collect, keyed by catalog id
+         */
+        public IntIntHashMap getItems() {
+            return items;
+        }
+
+        /**
+         * @return true if there is nothing to collect
+         */
+        public boolean isEmpty() {
+            return gold == 0 && items.isEmpty();
+        }
+    }
+
+    /**
+     * A trader's uncollected settlement and open orders. Updated while
+     * holding the lock of the order book involved, then its own.
+     */
+    private static final class Account {
+        private Settlement pending = new Settlement();
+        private final Set<Order> open = new LinkedHashSet<>();
+    }
+
+    private final ItemCatalog catalog;
+
+    /**
+     * Order book of each catalog item, indexed by id.
+     */
+    private final OrderBook[] books;
+
+    private final ConcurrentHashMap<Integer, Account> accounts = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextOrderId = new AtomicLong();
+
+    /**
+     * Create an auction house with an empty book for every catalog item.
+     *
+     * @param catalog items that can be traded
+     */
+    public AuctionHouse(ItemCatalog catalog) {
+        this.catalog = catalog;
+        this.books = new OrderBook[catalog.size()];
+        for (int i = 0; i < books.length; i++) {
+            books[i] = new OrderBook();
+        }
+    }
+
+    /**
+     * Place a buy order. The caller must already have taken
+     * {@code price * quantity} gold from the trader.
+     *
+     * @param traderId buyer
+     * @param item     catalog item to buy
+     * @param price    most the buyer pays per copy
+     * @param quantity copies wanted
+     * @return the order, already (partly) filled if it crossed the book
+     */
+    public Order placeBuy(int traderId, Item item, int price, int quantity) {
+        return place(traderId, item, Order.Side.BUY, price, quantity);
+    }
+
+    /**
+     * Place a sell order. The caller must already have taken
+     * {@code quantity} copies of the item from the trader.
+     *
+     * @param traderId seller
+     * @param item     catalog item to sell
+     * @param price    least the seller accepts per copy
+     * @param quantity copies offered
+     * @return the order, already (partly) filled if it crossed the book
+     */
+    public Order placeSell(int traderId, Item item, int price, int quantity) {
+        return place(traderId, item, Order.Side.SELL, price, quantity);
+    }
+
+    /**
+     * Cancel an open order and credit its escrow (unspent gold or unsold
+     * copies) back to its trader's account.
+     *
+     * @return true if the order was still open
+     */
+    public boolean cancel(Order order) {
+        OrderBook book = books[order.getItemId()];
+        synchronized (book) {
+            if (!order.isOpen() || !book.remove(order)) {
+                return false;
+            }
+            Account account = account(order.getTraderId());
+            synchronized (account) {
+                refundEscrow(account.pending, order);
+                account.open.remove(order);
+            }
+            order.close();
+            return true;
+        }
+    }
+
+    /**
+     * Hand out and clear everything credited to a trader.
+     *
+     * @return the collected settlement (possibly empty)
+     */
+    public Settlement collect(int traderId) {
+        Account account = account(traderId);
+        synchronized (account) {
+            Settlement collected = account.pending;
+            account.pending = new Settlement();
+            return collected;
+        }
+    }
+
+    /**
+     * @return a trader's orders that are still in the book, oldest first
+     */
+    public List<Order> openOrders(int traderId) {
+        Account account = account(traderId);
+        synchronized (account) {
+            return new ArrayList<>(account.open);
+        }
+    }
+
+    /**
+     * @return highest waiting buy price for an item, or {@link #noPrice}
+     */
+    public int bestBid(Item item) {
+        OrderBook book = books[item.getId()];
+        synchronized (book) {
+            return book.bestBid();
+        }
+    }
+
+    /**
+     * @return lowest waiting sell price for an item, or {@link #noPrice}
+     */
+    public int bestAsk(Item item) {
+        OrderBook book = books[item.getId()];
+        synchronized (book) {
+            return book.bestAsk();
+        }
+    }
+
+    /**
+     * @return the catalog of tradeable items
+     */
+    public ItemCatalog getCatalog() {
+        return catalog;
+    }
+
+    private Order place(int traderId, Item item, Order.Side side, int price, int quantity) {
+        if (price <= 0 || quantity <= 0) {
+            throw new IllegalArgumentException("Price and quantity must be positive: " + price + " x " + quantity);
+        }
+        if (item.getId() == Item.noId) {
+            throw new IllegalArgumentException("Item is not in the catalog: " + item.getName());
+        }
+        OrderBook book = books[item.getId()];
+        List<Fill> fills = new ArrayList<>(2);
+        synchronized (book) {
+            Order order = new Order(nextOrderId.getAndIncrement(), traderId, item.getId(), side, price, quantity);
+            book.submit(order, fills);
+            for (Fill fill : fills) {
+                settle(fill, side == Order.Side.BUY ? order : null);
+            }
+            if (order.isOpen()) {
+                Account account = account(traderId);
+                synchronized (account) {
+                    account.open.add(order);
+                }
+            }
+            return order;
+        }
+    }
+
+    /**
+     * Credit both sides of a match. An incoming buy order paid its own
+     * limit price in escrow, so the buyer also gets back the difference
+     * when the match happened at a lower, waiting sell price.
+     *
+     * @param incomingBuy the incoming order if it is a buy, else null
+     */
+    private void settle(Fill fill, Order incomingBuy) {
+        Account buyer = account(fill.getBuyerId());
+        synchronized (buyer) {
+            buyer.pending.items.addTo(fill.getItemId(), fill.getQuantity());
+            if (incomingBuy != null) {
+                buyer.pending.gold += (incomingBuy.getPrice() - fill.getPrice()) * fill.getQuantity();
+            }
+        }
+        Account seller = account(fill.getSellerId());
+        synchronized (seller) {
+            seller.pending.gold += fill.getPrice() * fill.getQuantity();
+        }
+        Order resting = fill.getResting();
+        if (!resting.isOpen()) {
+            Account owner = incomingBuy != null ? seller : buyer;
+            synchronized (owner) {
+                owner.open.remove(resting);
+            }
+        }
+    }
+
+    private static void refundEscrow(Settlement pending, Order order) {
+        if (order.getSide() == Order.Side.BUY) {
+            pending.gold += order.getPrice() * order.getRemaining();
+        } else {
+            pending.items.addTo(order.getItemId(), order.getRemaining());
+        }
+    }
+
+    private Account account(int traderId) {
+        return accounts.computeIfAbsent(traderId, id -> new Account());
+    }
+}
@@ -183,10 +183,7 @@ public class Battle {
                 return;
             }
             Hero target = livingHeroes.get(random.nextInt(livingHeroes.size()));
-            double dodgeChance = target.getAgility() * 0.0005;
-            dodgeChance = Math.min(0.5, dodgeChance);
-
-            if (random.nextDouble() < dodgeChance) {
+            if (random.nextDouble() < target.getStats().getDodgeChance()) {
                 System.out.printf("%s dodged the attack from %s!%n",
                         target.getName(), m.getName());
                 continue;
@@ -268,13 +265,7 @@ public class Battle {
      */
     private boolean handleHeroCastSpell(Hero hero) {
 
-        List<Item> allItems = hero.getInventory().getItems();
-        List<Spell> spells = new ArrayList<>();
-        for (Item it : allItems) {
-            if (it instanceof Spell) {
-                spells.add((Spell) it);
-            }
-        }
+        List<Spell> spells = hero.getInventory().getSpells();
 
         if (spells.isEmpty()) {
             System.out.println("No spells in inventory.");
@@ -380,13 +371,7 @@ public class Battle {
      * @return true if a potion was used (turn consumed), false if not.
      */
     private boolean handleHeroUsePotion(Hero hero) {
-        List<Item> allItems = hero.getInventory().getItems();
-        List<Potion> potions = new ArrayList<>();
-        for (Item it : allItems) {
-            if (it instanceof Potion) {
-                potions.add((Potion) it);
-            }
-        }
+        List<Potion> potions = hero.getInventory().getPotions();
 
         if (potions.isEmpty()) {
             System.out.println("No potions in inventory.");
@@ -484,13 +469,12 @@ public class Battle {
 
     /**
      * Compute physical attack damage from a hero to a monster.
-     * Uses hero strength + total weapon damage and reduces
-     * damage based on the monster's defense.
+     * Uses the hero's attack power (from strength + total weapon damage,
+     * see {@link Entities.HeroStats}) and reduces damage based on the monster's
+     * defense.
      */
     private int computeHeroAttackDamage(Hero hero, Monster target) {
-        int strength = hero.getStrength();
-        int weaponDamage = hero.getEquippedWeaponDamage();
-        double base = (strength + weaponDamage) * 0.05;
+        double base = hero.getStats().getAttackPower();
 
         int def = target.getDefense();
         double defenseFactor = 1.0 + def / 300.0;
@@ -505,9 +489,7 @@ public class Battle {
      */
     private int computeMonsterAttackDamage(Monster monster, Hero target) {
         double raw = monster.getBaseDamage() * 0.05;
-        int armor = target.getEquippedArmorReduction();
-        double defenseFactor = 1.0 + armor / 300.0;
-        double reduced = raw / defenseFactor;
+        double reduced = raw / target.getStats().getDamageReductionFactor();
         int dmg = (int) Math.round(reduced);
         return Math.max(1, dmg);
     }
@@ -518,9 +500,7 @@ public class Battle {
      */
     private int computeSpellDamage(Hero hero, Spell spell) {
         int spellBase = spell.getDamage();
-        int dex       = hero.getDexterity();
-        double factor = 1.0 + (dex / 10000.0);
-        int dmg = (int) Math.round(spellBase * factor);
+        int dmg = (int) Math.round(spellBase * hero.getStats().getSpellMultiplier());
         return Math.max(1, dmg);
     }
 
@@ -790,13 +770,7 @@ public class Battle {
      * @return true if a weapon was equipped, false if cancelled.
      */
     private boolean changeWeapon(Hero hero) {
-        List<Item> all = hero.getInventory().getItems();
-        List<Weapon> weapons = new ArrayList<>();
-        for (Item it : all) {
-            if (it instanceof Weapon) {
-                weapons.add((Weapon) it);
-            }
-        }
+        List<Weapon> weapons = hero.getInventory().getWeapons();
 
         if (weapons.isEmpty()) {
             System.out.println("No weapons in inventory.");
@@ -842,13 +816,7 @@ public class Battle {
      * @return true if armor was equipped, false if cancelled.
      */
     private boolean changeArmor(Hero hero) {
-        List<Item> all = hero.getInventory().getItems();
-        List<Armor> armors = new ArrayList<>();
-        for (Item it : all) {
-            if (it instanceof Armor) {
-                armors.add((Armor) it);
-            }
-        }
+        List<Armor> armors = hero.getInventory().getArmors();
 
         if (armors.isEmpty()) {
             System.out.println("No armor in inventory.");
@@ -1,9 +1,15 @@
 package Game;
 
+import Utility.IntIntHashMap;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Random;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
 
 /**
  * Represents the game board (grid) for the world of play.
@@ -13,6 +19,8 @@ import java.util.Random;
  *     Market tiles (where heroes can buy/sell items).
  * The board is generated randomly with a fixed percentage of inaccessible tiles
  * and a fixed number of market tiles placed on otherwise common tiles.
+ * Generation is driven by a seed: the same seed and size always produce
+ * the same board, no matter how many threads take part in generating it.
  */
 public class Board {
 
@@ -33,35 +41,129 @@ public class Board {
     private final int size;
 
     /**
-     * 2D grid of tiles that make up the board.
+     * 2D grid of tiles that make up the board. Null while the board is
+     * served straight from a memory-mapped board file (see {@link #mapped}).
+     */
+    private Tile[][] tiles;
+
+    /**
+     * Memory-mapped tile data when the board was loaded with
+     * {@link BoardFile#load(java.nio.file.Path)}, otherwise null.
+     * The first {@link #setTile} call copies it into {@link #tiles}.
+     */
+    private BoardFile.MappedTiles mapped;
+
+    /**
+     * Number of rows generated together as one unit of parallel work.
+     * Each stripe draws from its own random stream derived from
+     * (seed, stripe index), so the stripe height (not the thread count)
+     * fixes the output for a given seed.
      */
-    private final Tile[][] tiles;
+    private static final int stripeRows = 64;
 
     /**
-     * Random generator used to place inaccessible and market tiles.
+     * Seed the board was generated from.
      */
-    private final Random random = new Random();
+    private final long seed;
 
     /**
-     * List of coordinates [row, col] where market tiles are placed.
+     * Width/height (in tiles) of one bucket of the market index.
      */
-    private final List<int[]> marketPositions = new ArrayList<>();
+    private static final int marketIndexCellSize = 16;
+
+    /**
+     * Sparse index of market tile positions, supporting exact lookup,
+     * nearest-neighbour and range queries.
+     */
+    private final SpatialIndex<Tile> marketIndex = new SpatialIndex<>(marketIndexCellSize);
     private int startRow;
     private int startCol;
 
+    /**
+     * Distance field: for each tile (row-major index {@code row * size + col}),
+     * the number of steps to the nearest market tile, or {@link #unreachable}
+     * if no market can be reached from it (or the tile itself is blocked).
+     * Built on first use, so loading a large pre-baked board stays cheap.
+     */
+    private int[] marketDistance;
+
+    /**
+     * Marker value in {@link #marketDistance} for tiles with no path to a market.
+     */
+    public static final int unreachable = -1;
+
+    /**
+     * Incremented on every {@link #setTile} call, so views that cache
+     * derived data (e.g. a minimap) can tell when to rebuild it.
+     */
+    private int revision;
+
+    /**
+     * Biome and danger level of every tile, derived from {@link #seed}.
+     * Generated with the board, or on first use for boards loaded from a file.
+     */
+    private Terrain terrain;
+
+    /**
+     * Which party stands on each tile, so several parties can share the board.
+     */
+    private final Occupancy occupancy;
+
+    /**
+     * Row/column offsets for the four walkable directions (W, S, A, D).
+     */
+    private static final int[] rowSteps = {-1, 1, 0, 0};
+    private static final int[] colSteps = {0, 0, -1, 1};
+
     /**
      * Construct a Board of the given size.
      * This constructor:
      *     Generates the tile layout (inaccessible, common, market).
      *     Chooses a starting position on the first accessible tile found.
+     * A fresh random seed is used, so every call gives a different board.
      *
      * @param size the width/height of the square board
      */
     public Board(int size) {
+        this(size, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Construct the Board of the given size determined by {@code seed}.
+     *
+     * @param size the width/height of the square board
+     * @param seed generation seed; equal seeds give identical boards
+     */
+    public Board(int size, long seed) {
         this.size = size;
+        this.seed = seed;
         this.tiles = new Tile[size][size];
+        this.occupancy = new Occupancy(size);
         generateTiles();
         chooseStartPosition();
+        this.terrain = new Terrain(size, seed);
+    }
+
+    /**
+     * Construct a Board backed by a memory-mapped board file.
+     * Used by {@link BoardFile#load(java.nio.file.Path)}.
+     *
+     * @param mapped   mapped tile data
+     * @param seed     seed recorded in the file
+     * @param startRow starting row recorded in the file
+     * @param startCol starting column recorded in the file
+     * @param markets  packed market positions recorded in the file
+     */
+    Board(BoardFile.MappedTiles mapped, long seed, int startRow, int startCol, long[] markets) {
+        this.size = mapped.getSize();
+        this.seed = seed;
+        this.mapped = mapped;
+        this.occupancy = new Occupancy(size);
+        this.startRow = startRow;
+        this.startCol = startCol;
+        for (long key : markets) {
+            marketIndex.put(SpatialIndex.rowOf(key), SpatialIndex.colOf(key), MarketTile.instance);
+        }
     }
 
     /**
@@ -70,29 +172,93 @@ public class Board {
      *     {@link #inaccesibleRate}.
      *     Then, a fixed number of these common tiles are converted into
      *     Market tiles (chosen randomly).
+     * Row stripes are generated in parallel. Market tiles are chosen by
+     * giving every common tile a random key and keeping the
+     * {@link #marketAmount} smallest keys (a streaming sample): each stripe
+     * keeps only its own best candidates, and the stripes' candidates are
+     * merged at the end, so no list of all common coordinates is built.
      */
     private void generateTiles() {
-        List<int[]> commonCoords = new ArrayList<>();
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-                double d = random.nextDouble();
-                if (d < inaccesibleRate) {
-                    tiles[r][c] = new InaccessibleTile();
-                } else {
-                    tiles[r][c] = new CommonTile();
-                    commonCoords.add(new int[]{r, c});
+        int stripes = (size + stripeRows - 1) / stripeRows;
+        double[][] candidateKeys = new double[stripes][];
+        long[][] candidatePositions = new long[stripes][];
+
+        IntStream.range(0, stripes).parallel().forEach(stripe -> {
+            SplittableRandom rng = new SplittableRandom(stripeSeed(seed, stripe));
+            double[] keys = new double[marketAmount];
+            long[] positions = new long[marketAmount];
+            int kept = 0;
+
+            int endRow = Math.min(size, (stripe + 1) * stripeRows);
+            for (int r = stripe * stripeRows; r < endRow; r++) {
+                Tile[] row = tiles[r];
+                for (int c = 0; c < size; c++) {
+                    if (rng.nextDouble() < inaccesibleRate) {
+                        row[c] = InaccessibleTile.instance;
+                        continue;
+                    }
+                    row[c] = CommonTile.instance;
+                    double key = rng.nextDouble();
+                    if (kept < marketAmount) {
+                        kept = insertCandidate(keys, positions, kept, key, SpatialIndex.pack(r, c));
+                    } else if (key < keys[kept - 1]) {
+                        insertCandidate(keys, positions, kept - 1, key, SpatialIndex.pack(r, c));
+                    }
                 }
             }
-        }
+            candidateKeys[stripe] = Arrays.copyOf(keys, kept);
+            candidatePositions[stripe] = Arrays.copyOf(positions, kept);
+        });
 
-        if (!commonCoords.isEmpty()) {
-            Collections.shuffle(commonCoords, random);
-            for (int i = 0; i < marketAmount; i++) {
-                int[] pos = commonCoords.get(i);
-                tiles[pos[0]][pos[1]] = new MarketTile();
-                marketPositions.add(new int[]{pos[0], pos[1]});
+        double[] keys = new double[marketAmount];
+        long[] positions = new long[marketAmount];
+        int kept = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            for (int i = 0; i < candidateKeys[stripe].length; i++) {
+                double key = candidateKeys[stripe][i];
+                if (kept < marketAmount) {
+                    kept = insertCandidate(keys, positions, kept, key, candidatePositions[stripe][i]);
+                } else if (key < keys[kept - 1]) {
+                    insertCandidate(keys, positions, kept - 1, key, candidatePositions[stripe][i]);
+                }
             }
         }
+
+        for (int i = 0; i < kept; i++) {
+            int r = SpatialIndex.rowOf(positions[i]);
+            int c = SpatialIndex.colOf(positions[i]);
+            tiles[r][c] = MarketTile.instance;
+            marketIndex.put(r, c, tiles[r][c]);
+        }
+    }
+
+    /**
+     * Insert (key, position) into the first {@code count} entries of the
+     * sorted candidate arrays, keeping them sorted by ascending key.
+     *
+     * @return the new number of entries ({@code count + 1})
+     */
+    private static int insertCandidate(double[] keys, long[] positions, int count, double key, long position) {
+        int i = count;
+        while (i > 0 && keys[i - 1] > key) {
+            keys[i] = keys[i - 1];
+            positions[i] = positions[i - 1];
+            i--;
+        }
+        keys[i] = key;
+        positions[i] = position;
+        return count + 1;
+    }
+
+    /**
+     * Derive an independent random stream seed for one stripe
+     * (SplitMix64 finalizer over the board seed and stripe index).
+     */
+    private static long stripeSeed(long seed, int stripe) {
+        long z = seed + (stripe + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 
     /**
@@ -113,7 +279,7 @@ public class Board {
         }
         startRow = 0;
         startCol = 0;
-        tiles[0][0] = new CommonTile();
+        tiles[0][0] = CommonTile.instance;
     }
 
     /**
@@ -131,9 +297,323 @@ public class Board {
      * @return the Tile at (row, col)
      */
     public Tile getTile(int row, int col) {
+        if (tiles == null) {
+            return mapped.get(row, col);
+        }
         return tiles[row][col];
     }
 
+    /**
+     * Replace the tile at the given coordinates and keep the market
+     * distance field up to date.
+     * Changes that can only shorten distances (a new market, or a blocked
+     * tile opening up) are propagated incrementally from the changed tile.
+     * Changes that can lengthen them (a market removed, a tile blocked)
+     * fall back to a full multi-source BFS.
+     *
+     * @param row  row index
+     * @param col  column index
+     * @param tile the new tile
+     */
+    public void setTile(int row, int col, Tile tile) {
+        if (tiles == null) {
+            materialize();
+        }
+        Tile old = tiles[row][col];
+        tiles[row][col] = tile;
+        revision++;
+
+        if (old.isMarket() && !tile.isMarket()) {
+            marketIndex.remove(row, col);
+        } else if (!old.isMarket() && tile.isMarket()) {
+            marketIndex.put(row, col, tile);
+        }
+
+        if (marketDistance == null) {
+            return; // not built yet; will see the new tile when it is
+        }
+        boolean lengthens = (old.isMarket() && !tile.isMarket())
+                || (old.isAccessible() && !tile.isAccessible());
+        if (lengthens) {
+            computeMarketDistances();
+            return;
+        }
+
+        int index = row * size + col;
+        if (tile.isMarket()) {
+            marketDistance[index] = 0;
+        } else if (tile.isAccessible() && !old.isAccessible()) {
+            marketDistance[index] = nearestNeighbourDistance(row, col);
+            if (marketDistance[index] == unreachable) {
+                return;
+            }
+        } else {
+            return;
+        }
+        int[] queue = new int[size * size];
+        queue[0] = index;
+        relaxFrom(queue, 1);
+    }
+
+    /**
+     * @param row row index
+     * @param col column index
+     * @return number of steps from (row, col) to the nearest market,
+     *         or {@link #unreachable} if no market can be reached
+     */
+    public int getMarketDistance(int row, int col) {
+        if (marketDistance == null) {
+            computeMarketDistances();
+        }
+        return marketDistance[row * size + col];
+    }
+
+    /**
+     * Walk the distance field downhill from (row, col) to the nearest market.
+     * Each step is O(1), so the whole path costs O(path length).
+     *
+     * @param row starting row
+     * @param col starting column
+     * @return list of [row, col] steps (excluding the start, ending on the
+     *         market), empty if already on a market or no market is reachable
+     */
+    public List<int[]> pathToNearestMarket(int row, int col) {
+        List<int[]> path = new ArrayList<>();
+        int dist = getMarketDistance(row, col);
+        if (dist == unreachable) {
+            return path;
+        }
+        int r = row;
+        int c = col;
+        while (dist > 0) {
+            for (int d = 0; d < rowSteps.length; d++) {
+                int nr = r + rowSteps[d];
+                int nc = c + colSteps[d];
+                if (isInside(nr, nc) && marketDistance[nr * size + nc] == dist - 1) {
+                    r = nr;
+                    c = nc;
+                    break;
+                }
+            }
+            path.add(new int[]{r, c});
+            dist--;
+        }
+        return path;
+    }
+
+    /**
+     * Find the way to the nearest market a party knows of: a market tile
+     * it has explored, reached over explored accessible tiles only, so
+     * travelling never uncovers hidden tiles or markets.
+     *
+     * When the walk down the distance field (see
+     * {@link #pathToNearestMarket(int, int)}) stays on explored tiles it is
+     * also the shortest known way, and is returned as is. Otherwise each
+     * explored market is tried with {@link #findPath(int, int, int, int,
+     * FogOfWar)}, closest first by Manhattan distance, until that distance
+     * (a lower bound on the walk) is no shorter than the best path found.
+     *
+     * @param row starting row
+     * @param col starting column
+     * @param fog the party's explored tiles, or null if the whole map is
+     *            known
+     * @return list of [row, col] steps (excluding the start, ending on the
+     *         market), empty if already on a market or no known market is
+     *         reachable
+     */
+    public List<int[]> pathToNearestMarket(int row, int col, FogOfWar fog) {
+        List<int[]> path = pathToNearestMarket(row, col);
+        if (fog == null || path.isEmpty() || allExplored(path, fog)) {
+            return path;
+        }
+
+        List<int[]> known = new ArrayList<>();
+        for (int[] market : getMarketPositions()) {
+            if (fog.isExplored(market[0], market[1])) {
+                known.add(market);
+            }
+        }
+        known.sort(Comparator.comparingInt(m -> Math.abs(m[0] - row) + Math.abs(m[1] - col)));
+        List<int[]> best = new ArrayList<>();
+        for (int[] market : known) {
+            if (!best.isEmpty() && Math.abs(market[0] - row) + Math.abs(market[1] - col) >= best.size()) {
+                break;
+            }
+            List<int[]> candidate = findPath(row, col, market[0], market[1], fog);
+            if (!candidate.isEmpty() && (best.isEmpty() || candidate.size() < best.size())) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return true if every step of a path is an explored tile
+     */
+    private static boolean allExplored(List<int[]> path, FogOfWar fog) {
+        for (int[] step : path) {
+            if (!fog.isExplored(step[0], step[1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find a shortest walkable path between two arbitrary tiles using A*
+     * with the Manhattan distance as heuristic (admissible on a 4-connected
+     * grid with unit step cost).
+     *
+     * @return list of [row, col] steps (excluding the start, ending on the
+     *         goal), or an empty list if the goal is unreachable or equal
+     *         to the start
+     */
+    public List<int[]> findPath(int fromRow, int fromCol, int toRow, int toCol) {
+        return findPath(fromRow, fromCol, toRow, toCol, null);
+    }
+
+    /**
+     * Find a shortest walkable path between two tiles, as
+     * {@link #findPath(int, int, int, int)}, but only over tiles a party
+     * has explored. Costs and parents are kept in hash maps, so memory
+     * follows the tiles the search reaches rather than the board size.
+     *
+     * @param fog the party's explored tiles, or null to use every tile
+     * @return list of [row, col] steps (excluding the start, ending on the
+     *         goal), or an empty list if the goal is unreachable or equal
+     *         to the start
+     */
+    public List<int[]> findPath(int fromRow, int fromCol, int toRow, int toCol, FogOfWar fog) {
+        List<int[]> path = new ArrayList<>();
+        if (!isInside(fromRow, fromCol) || !isWalkable(toRow, toCol, fog)) {
+            return path;
+        }
+
+        int start = fromRow * size + fromCol;
+        int goal = toRow * size + toCol;
+        IntIntHashMap cost = new IntIntHashMap();
+        IntIntHashMap parent = new IntIntHashMap();
+        cost.put(start, 0);
+
+        // Entries are {f = g + h, tile index}; ties broken by lower index.
+        PriorityQueue<int[]> open = new PriorityQueue<>(
+                (a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+        open.add(new int[]{manhattan(start, goal), start});
+
+        while (!open.isEmpty()) {
+            int[] entry = open.poll();
+            int current = entry[1];
+            if (current == goal) {
+                break;
+            }
+            int g = cost.get(current, Integer.MAX_VALUE);
+            if (entry[0] - manhattan(current, goal) > g) {
+                continue; // stale entry
+            }
+            int r = current / size;
+            int c = current % size;
+            for (int d = 0; d < rowSteps.length; d++) {
+                int nr = r + rowSteps[d];
+                int nc = c + colSteps[d];
+                if (!isWalkable(nr, nc, fog)) {
+                    continue;
+                }
+                int next = nr * size + nc;
+                if (g + 1 < cost.get(next, Integer.MAX_VALUE)) {
+                    cost.put(next, g + 1);
+                    parent.put(next, current);
+                    open.add(new int[]{g + 1 + manhattan(next, goal), next});
+                }
+            }
+        }
+
+        if (goal == start || !parent.containsKey(goal)) {
+            return path;
+        }
+        for (int at = goal; at != start; at = parent.get(at, start)) {
+            path.add(new int[]{at / size, at % size});
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * @return true if (row, col) is an accessible tile inside the board
+     *         and, with a fog of war, explored
+     */
+    private boolean isWalkable(int row, int col, FogOfWar fog) {
+        return isInside(row, col) && getTile(row, col).isAccessible()
+                && (fog == null || fog.isExplored(row, col));
+    }
+
+    /**
+     * Manhattan distance between two row-major tile indices.
+     */
+    private int manhattan(int a, int b) {
+        return Math.abs(a / size - b / size) + Math.abs(a % size - b % size);
+    }
+
+    /**
+     * @return packed region value (biome and danger level, see
+     *         {@link Terrain}) of the tile at (row, col)
+     */
+    public int getRegion(int row, int col) {
+        if (terrain == null) {
+            terrain = new Terrain(size, seed);
+        }
+        return terrain.getRegion(row, col);
+    }
+
+    /**
+     * @return the grid recording which party stands on each tile
+     */
+    public Occupancy getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Claim the free accessible tile closest to (row, col) for a party,
+     * searching outwards in rings of growing Manhattan distance.
+     * Safe to call from several threads at once.
+     *
+     * @param partyId id of the party to place
+     * @param row     preferred row
+     * @param col     preferred column
+     * @return packed position of the claimed tile (see
+     *         {@link SpatialIndex#pack(int, int)}), or {@link SpatialIndex#none}
+     *         if every accessible tile is taken
+     */
+    public long placeParty(int partyId, int row, int col) {
+        for (int distance = 0; distance <= 2 * size; distance++) {
+            for (int dr = -distance; dr <= distance; dr++) {
+                int reach = distance - Math.abs(dr);
+                for (int dc = -reach; dc <= reach; dc += Math.max(1, 2 * reach)) {
+                    int r = row + dr;
+                    int c = col + dc;
+                    if (isInside(r, c) && getTile(r, c).isAccessible()
+                            && occupancy.claim(r, c, partyId)) {
+                        return SpatialIndex.pack(r, c);
+                    }
+                }
+            }
+        }
+        return SpatialIndex.none;
+    }
+
+    /**
+     * @return the seed this board was generated from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return a counter that changes whenever a tile is replaced
+     */
+    public int getRevision() {
+        return revision;
+    }
+
     /**
      * @return the size of the board (size x size)
      */
@@ -156,57 +636,179 @@ public class Board {
     }
 
     /**
-     * @return an unmodifiable list of all market tile coordinates [row, col]
+     * @return a new list of all market tile coordinates [row, col],
+     *         in the order the markets were placed
      */
     public List<int[]> getMarketPositions() {
-        return Collections.unmodifiableList(marketPositions);
+        List<int[]> positions = new ArrayList<>(marketIndex.size());
+        for (long key : marketIndex.keys()) {
+            positions.add(new int[]{SpatialIndex.rowOf(key), SpatialIndex.colOf(key)});
+        }
+        return positions;
+    }
+
+    /**
+     * Find the market closest to (row, col) in straight-line (Manhattan)
+     * distance, ignoring obstacles. Use {@link #getMarketDistance(int, int)}
+     * for the walking distance.
+     *
+     * @return packed position (see {@link SpatialIndex#pack(int, int)}),
+     *         or {@link SpatialIndex#none} if the board has no markets
+     */
+    public long nearestMarket(int row, int col) {
+        return marketIndex.nearest(row, col);
+    }
+
+    /**
+     * @return packed positions of all markets inside the rectangle
+     *         [minRow, maxRow] x [minCol, maxCol]
+     */
+    public List<Long> marketsInRange(int minRow, int minCol, int maxRow, int maxCol) {
+        return marketIndex.range(minRow, minCol, maxRow, maxCol);
+    }
+
+    /**
+     * Rebuild the whole distance field with a multi-source BFS seeded
+     * from every market tile at once. Runs in O(size * size).
+     */
+    private void computeMarketDistances() {
+        if (marketDistance == null) {
+            marketDistance = new int[size * size];
+        }
+        Arrays.fill(marketDistance, unreachable);
+        int[] queue = new int[size * size];
+        int tail = 0;
+        for (long key : marketIndex.keys()) {
+            int index = SpatialIndex.rowOf(key) * size + SpatialIndex.colOf(key);
+            marketDistance[index] = 0;
+            queue[tail++] = index;
+        }
+        relaxFrom(queue, tail);
+    }
+
+    /**
+     * BFS relaxation: starting from the tiles already in the queue,
+     * lower the distance of every accessible neighbour that can be reached
+     * in fewer steps than currently recorded.
+     *
+     * @param queue scratch queue holding the seed tiles in [0, tail)
+     * @param tail  number of seed tiles
+     */
+    private void relaxFrom(int[] queue, int tail) {
+        int head = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            int next = marketDistance[current] + 1;
+            int r = current / size;
+            int c = current % size;
+            for (int d = 0; d < rowSteps.length; d++) {
+                int nr = r + rowSteps[d];
+                int nc = c + colSteps[d];
+                if (!isInside(nr, nc) || !getTile(nr, nc).isAccessible()) {
+                    continue;
+                }
+                int neighbour = nr * size + nc;
+                int known = marketDistance[neighbour];
+                if (known == unreachable || next < known) {
+                    marketDistance[neighbour] = next;
+                    // A tile can only be lowered a bounded number of times,
+                    // but guard the fixed-size queue anyway.
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, queue.length * 2);
+                    }
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 1 + the smallest known market distance among the accessible
+     *         neighbours of (row, col), or {@link #unreachable} if none of
+     *         them can reach a market
+     */
+    private int nearestNeighbourDistance(int row, int col) {
+        int best = unreachable;
+        for (int d = 0; d < rowSteps.length; d++) {
+            int nr = row + rowSteps[d];
+            int nc = col + colSteps[d];
+            if (!isInside(nr, nc)) {
+                continue;
+            }
+            int known = marketDistance[nr * size + nc];
+            if (known != unreachable && (best == unreachable || known + 1 < best)) {
+                best = known + 1;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Copy a memory-mapped board into a regular tile array so it can be
+     * modified.
+     */
+    private void materialize() {
+        tiles = new Tile[size][size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                tiles[r][c] = mapped.get(r, c);
+            }
+        }
+        mapped = null;
     }
 
     /**
      * Print an ASCII representation of the board to the console.
      * Each cell is drawn as a box with:
      *     "H" (green) for the party position.
+     *     "P" (cyan) for other parties on the board.
      *     "M" (yellow) for a Market tile.
      *     "X" (red) for an Inaccessible tile.
      *     Blank for a Common tile.
      * A legend is displayed under the board explaining the symbols.
+     * The whole map is built in memory and printed in one call; the main
+     * loop uses {@link BoardRenderer} instead, which also redraws
+     * incrementally.
      *
      * @param party the current party (used to draw the "H" marker), can be null
      */
     public void print(Party party) {
-        System.out.println();
+        StringBuilder sb = new StringBuilder();
+        sb.append('\n');
         for (int r = 0; r < size; r++) {
             for (int c = 0; c < size; c++) {
-                System.out.print("+-----");
+                sb.append("+-----");
             }
-            System.out.println("+");
+            sb.append("+\n");
 
             for (int c = 0; c < size; c++) {
-                System.out.print("|");
+                sb.append('|');
                 boolean hasParty = (party != null
                         && party.getRow() == r
                         && party.getCol() == c);
 
-                String cellContent;
+                int occupant = occupancy.occupantAt(r, c);
                 if (hasParty) {
-                    cellContent = "  " + Tile.colorGreen + "H" + Tile.reset + "  ";
+                    sb.append("  ").append(Tile.colorGreen).append('H').append(Tile.reset).append("  ");
+                } else if (occupant != Occupancy.empty) {
+                    sb.append("  ").append(Tile.colorCyan).append('P').append(Tile.reset).append("  ");
                 } else {
-                    cellContent = tiles[r][c].render();
+                    sb.append(getTile(r, c).render());
                 }
-
-                System.out.print(cellContent);
             }
-            System.out.println("|");
+            sb.append("|\n");
         }
 
         for (int c = 0; c < size; c++) {
-            System.out.print("+-----");
-        }
-        System.out.println("+");
-        System.out.println("Legend:");
-        System.out.println("  " + Tile.colorGreen + "H" + Tile.reset + "  : Hero party");
-        System.out.println("  " + Tile.colorYellow + "M" + Tile.reset + "  : Market");
-        System.out.println("  " + Tile.colorRed + "X" + Tile.reset + "  : Inaccessible");
-        System.out.println("       (blank) : Common\n");
+            sb.append("+-----");
+        }
+        sb.append("+\n");
+        sb.append("Legend:\n");
+        sb.append("  " + Tile.colorGreen + "H" + Tile.reset + "  : Hero party\n");
+        sb.append("  " + Tile.colorCyan + "P" + Tile.reset + "  : Other party\n");
+        sb.append("  " + Tile.colorYellow + "M" + Tile.reset + "  : Market\n");
+        sb.append("  " + Tile.colorRed + "X" + Tile.reset + "  : Inaccessible\n");
+        sb.append("       (blank) : Common\n\n");
+        System.out.print(sb);
     }
 }
@@ -0,0 +1,337 @@
+package Game;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact on-disk format for boards, so large curated maps can be baked
+ * once and loaded instantly instead of being regenerated.
+ *
+ * Layout (all numbers big-endian):
+ *  - int magic ("MHB1"), int size, long seed, int startRow, int startCol
+ *  - int marketCount, followed by one packed long position per market
+ *  - int[size + 1] row offsets, relative to the start of the tile data
+ *  - tile data, one record per row: a mode byte, then either
+ *      - {@link #packedRow}: 2 bits per tile, 4 tiles per byte, or
+ *      - {@link #rleRow}: runs of one byte each, the top 2 bits holding the
+ *        tile kind and the low 6 bits the run length minus one.
+ *    Each row uses whichever encoding is smaller.
+ *
+ * Tile kinds are 0 = common, 1 = inaccessible, 2 = market.
+ *
+ * Loading memory-maps the file and serves {@link Board#getTile(int, int)}
+ * straight from the mapped buffer, returning the shared tile flyweights,
+ * so no object is created per tile. The header, the market table and
+ * every row record are checked first, so a corrupt or foreign file is
+ * rejected with an {@link IOException} rather than failing mid-game.
+ */
+public final class BoardFile {
+
+    /**
+     * File signature: the ASCII bytes "MHB1".
+     */
+    private static final int magic = 0x4D484231;
+
+    /**
+     * Row encodings.
+     */
+    private static final byte packedRow = 0;
+    private static final byte rleRow = 1;
+
+    /**
+     * Longest run a single RLE byte can describe.
+     */
+    private static final int maxRun = 64;
+
+    /**
+     * Largest board a file may hold: the number of tiles must fit in an
+     * int, as the per-tile tables of {@link Board} are indexed by one.
+     */
+    private static final int maxSize = 46340;
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a static-only utility class.
+     */
+    private BoardFile() { }
+
+    /**
+     * Write the board to the given file, replacing it if it exists.
+     *
+     * @param board board to save
+     * @param file  destination path
+     * @throws IOException if writing fails
+     */
+    public static void save(Board board, Path file) throws IOException {
+        int size = board.getSize();
+        List<int[]> markets = board.getMarketPositions();
+
+        // First pass: pick each row's encoding so the offset table can be
+        // written before the data.
+        int[] rowOffsets = new int[size + 1];
+        boolean[] useRle = new boolean[size];
+        int packedLength = 1 + (size + 3) / 4;
+        for (int r = 0; r < size; r++) {
+            int rleLength = 1 + countRuns(board, r);
+            useRle[r] = rleLength < packedLength;
+            rowOffsets[r + 1] = rowOffsets[r] + (useRle[r] ? rleLength : packedLength);
+        }
+
+        try (OutputStream raw = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(raw))) {
+            out.writeInt(magic);
+            out.writeInt(size);
+            out.writeLong(board.getSeed());
+            out.writeInt(board.getStartRow());
+            out.writeInt(board.getStartCol());
+            out.writeInt(markets.size());
+            for (int[] pos : markets) {
+                out.writeLong(SpatialIndex.pack(pos[0], pos[1]));
+            }
+            for (int offset : rowOffsets) {
+                out.writeInt(offset);
+            }
+
+            byte[] packed = new byte[packedLength - 1];
+            for (int r = 0; r < size; r++) {
+                if (useRle[r]) {
+                    out.writeByte(rleRow);
+                    writeRuns(board, r, out);
+                } else {
+                    out.writeByte(packedRow);
+                    Arrays.fill(packed, (byte) 0);
+                    for (int c = 0; c < size; c++) {
+                        packed[c >> 2] |= (byte) (kindOf(board.getTile(r, c)) << ((c & 3) * 2));
+                    }
+                    out.write(packed);
+                }
+            }
+        }
+    }
+
+    /**
+     * Memory-map a board file and wrap it in a {@link Board}.
+     *
+     * @param file board file written by {@link #save(Board, Path)}
+     * @return a board whose tiles are read from the mapped file
+     * @throws IOException if the file cannot be read or is not a board file
+     */
+    public static Board load(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < 28 || buffer.getInt(0) != magic) {
+            throw new IOException("Not a board file: " + file);
+        }
+        int size = buffer.getInt(4);
+        long seed = buffer.getLong(8);
+        int startRow = buffer.getInt(16);
+        int startCol = buffer.getInt(20);
+        int marketCount = buffer.getInt(24);
+        if (size <= 0 || size > maxSize) {
+            throw new IOException("Bad board size " + size + " in board file: " + file);
+        }
+        if (startRow < 0 || startRow >= size || startCol < 0 || startCol >= size) {
+            throw new IOException("Start position outside the board in board file: " + file);
+        }
+        if (marketCount < 0 || 28L + 8L * marketCount > buffer.limit()) {
+            throw new IOException("Corrupt market table in board file: " + file);
+        }
+
+        long[] markets = new long[marketCount];
+        int position = 28;
+        for (int i = 0; i < marketCount; i++) {
+            markets[i] = buffer.getLong(position);
+            position += 8;
+        }
+        int rowTable = position;
+        long dataStart = rowTable + 4L * (size + 1);
+        if (dataStart > buffer.limit()) {
+            throw new IOException("Truncated board file: " + file);
+        }
+        checkRows(buffer, size, rowTable, (int) dataStart, file);
+
+        MappedTiles tiles = new MappedTiles(buffer, size, rowTable, (int) dataStart);
+        for (long key : markets) {
+            int row = SpatialIndex.rowOf(key);
+            int col = SpatialIndex.colOf(key);
+            if (row < 0 || row >= size || col < 0 || col >= size || !tiles.get(row, col).isMarket()) {
+                throw new IOException("Market at (" + row + ", " + col + ") is not a market tile in board file: "
+                        + file);
+            }
+        }
+        return new Board(tiles, seed, startRow, startCol, markets);
+    }
+
+    /**
+     * Check the row table and every row record, so that
+     * {@link MappedTiles#get(int, int)} can decode any tile of the board
+     * without further checks: each row must lie inside the file, after
+     * the previous one, and decode to exactly {@code size} tiles of a
+     * known kind.
+     *
+     * @throws IOException if a row is out of place or malformed
+     */
+    private static void checkRows(MappedByteBuffer buffer, int size, int rowTable, int dataStart, Path file)
+            throws IOException {
+        int dataLength = buffer.limit() - dataStart;
+        int packedLength = 1 + (size + 3) / 4;
+        int end = buffer.getInt(rowTable);
+        for (int r = 0; r < size; r++) {
+            int start = end;
+            end = buffer.getInt(rowTable + 4 * (r + 1));
+            if (start < 0 || end <= start || end > dataLength) {
+                throw new IOException("Row " + r + " out of place in board file: " + file);
+            }
+            int offset = dataStart + start;
+            byte mode = buffer.get(offset);
+            if (mode == packedRow) {
+                if (end - start < packedLength) {
+                    throw new IOException("Row " + r + " too short in board file: " + file);
+                }
+                for (int c = 0; c < size; c++) {
+                    int b = buffer.get(offset + 1 + (c >> 2));
+                    if (((b >> ((c & 3) * 2)) & 3) == 3) {
+                        throw new IOException("Unknown tile kind in row " + r + " of board file: " + file);
+                    }
+                }
+            } else if (mode == rleRow) {
+                int covered = 0;
+                for (int i = offset + 1; covered < size; i++) {
+                    if (i >= dataStart + end) {
+                        throw new IOException("Row " + r + " too short in board file: " + file);
+                    }
+                    int run = buffer.get(i) & 0xFF;
+                    if (run >>> 6 == 3) {
+                        throw new IOException("Unknown tile kind in row " + r + " of board file: " + file);
+                    }
+                    covered += (run & 0x3F) + 1;
+                }
+                if (covered != size) {
+                    throw new IOException("Row " + r + " runs past the board edge in board file: " + file);
+                }
+            } else {
+                throw new IOException("Unknown encoding of row " + r + " in board file: " + file);
+            }
+        }
+    }
+
+    /**
+     * @return the 2-bit kind code for a tile
+     */
+    private static int kindOf(Tile tile) {
+        if (tile.isMarket()) {
+            return 2;
+        }
+        return tile.isAccessible() ? 0 : 1;
+    }
+
+    /**
+     * @return the shared tile instance for a 2-bit kind code
+     */
+    private static Tile tileOf(int kind) {
+        switch (kind) {
+            case 1:
+                return InaccessibleTile.instance;
+            case 2:
+                return MarketTile.instance;
+            default:
+                return CommonTile.instance;
+        }
+    }
+
+    /**
+     * @return number of RLE bytes needed for one row
+     */
+    private static int countRuns(Board board, int row) {
+        int runs = 0;
+        int c = 0;
+        int size = board.getSize();
+        while (c < size) {
+            int kind = kindOf(board.getTile(row, c));
+            int length = 1;
+            while (c + length < size && length < maxRun
+                    && kindOf(board.getTile(row, c + length)) == kind) {
+                length++;
+            }
+            runs++;
+            c += length;
+        }
+        return runs;
+    }
+
+    /**
+     * Write one row as RLE bytes.
+     */
+    private static void writeRuns(Board board, int row, DataOutputStream out) throws IOException {
+        int c = 0;
+        int size = board.getSize();
+        while (c < size) {
+            int kind = kindOf(board.getTile(row, c));
+            int length = 1;
+            while (c + length < size && length < maxRun
+                    && kindOf(board.getTile(row, c + length)) == kind) {
+                length++;
+            }
+            out.writeByte((kind << 6) | (length - 1));
+            c += length;
+        }
+    }
+
+    /**
+     * Read-only view of the tile data inside a mapped board file.
+     */
+    static final class MappedTiles {
+
+        private final MappedByteBuffer buffer;
+        private final int size;
+        private final int rowTable;
+        private final int dataStart;
+
+        private MappedTiles(MappedByteBuffer buffer, int size, int rowTable, int dataStart) {
+            this.buffer = buffer;
+            this.size = size;
+            this.rowTable = rowTable;
+            this.dataStart = dataStart;
+        }
+
+        /**
+         * @return the width/height of the mapped board
+         */
+        int getSize() {
+            return size;
+        }
+
+        /**
+         * Decode the tile at (row, col): O(1) for packed rows,
+         * O(runs in the row) for RLE rows.
+         */
+        Tile get(int row, int col) {
+            int offset = dataStart + buffer.getInt(rowTable + 4 * row);
+            if (buffer.get(offset) == packedRow) {
+                int b = buffer.get(offset + 1 + (col >> 2));
+                return tileOf((b >> ((col & 3) * 2)) & 3);
+            }
+            int position = offset + 1;
+            int covered = 0;
+            while (true) {
+                int run = buffer.get(position++) & 0xFF;
+                covered += (run & 0x3F) + 1;
+                if (col < covered) {
+                    return tileOf(run >>> 6);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,646 @@
+package Game;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Draws the board for the main game loop.
+ *
+ * Only a viewport of at most {@link #viewRows} x {@link #viewCols} cells
+ * around the party is drawn, so the cost of a frame depends on the
+ * viewport and not on the board size. Boards larger than the viewport
+ * also get a downsampled minimap next to the grid.
+ *
+ * Every frame is assembled in a reusable byte buffer and written to the
+ * terminal with a single write call. The first frame (and any frame after
+ * {@link #invalidate()}) clears the screen and draws the full viewport and
+ * legend. Later frames only emit cursor-addressed updates for the cells
+ * whose content changed (the party marker moving, or the view scrolling),
+ * followed by the status and statistics lines.
+ *
+ * If the party has a {@link FogOfWar}, tiles it has not explored are
+ * drawn as shaded cells and minimap blocks with nothing explored stay
+ * blank; newly explored cells reach the screen through the same diff.
+ *
+ * Other parties (from the board's {@link Occupancy} grid) and roaming
+ * monster groups are drawn where the party can see them (within
+ * its sight radius when it has a fog of war, anywhere in view otherwise).
+ *
+ * Callers must invalidate the renderer whenever something else has been
+ * printed that may have scrolled the screen (menus, battles, ...), since
+ * cursor addresses are only valid while the last full frame is in place.
+ */
+public class BoardRenderer {
+
+    /**
+     * ANSI sequence: move the cursor to the top-left corner and clear the screen.
+     */
+    private static final String clearScreen = "\u001B[H\u001B[2J";
+
+    /**
+     * ANSI sequence: clear from the cursor to the end of the screen.
+     */
+    private static final String clearToEnd = "\u001B[J";
+
+    /**
+     * Content of a viewport cell the party has not explored yet.
+     */
+    private static final String unexploredCell = "\u2591\u2591\u2591\u2591\u2591";
+
+    /**
+     * Width of one cell including its left border ("|" + 5 characters).
+     */
+    private static final int cellWidth = 6;
+
+    /**
+     * Maximum number of board rows drawn at once. Keeps the whole frame
+     * within a 24-line terminal.
+     */
+    public static final int viewRows = 9;
+
+    /**
+     * Maximum number of board columns drawn at once. Together with the
+     * minimap this keeps the frame within 80 columns.
+     */
+    public static final int viewCols = 9;
+
+    /**
+     * Maximum minimap width in characters.
+     */
+    private static final int minimapMaxCols = 20;
+
+    /**
+     * Gap (in characters) between the grid and the minimap.
+     */
+    private static final int minimapGap = 3;
+
+    /**
+     * Board being drawn.
+     */
+    private final Board board;
+
+    /**
+     * Roaming monster groups to draw, or null.
+     */
+    private final RoamingMonsters roamers;
+
+    /**
+     * Raw stdout stream, so a frame goes out in one write instead of
+     * through the line-buffered {@link System#out}.
+     */
+    private final OutputStream out = new FileOutputStream(FileDescriptor.out);
+
+    /**
+     * Reusable frame buffer. The board output is ASCII apart from the
+     * status message, which is encoded to UTF-8 on append.
+     */
+    private byte[] buffer = new byte[4096];
+
+    /**
+     * Number of bytes of {@link #buffer} used by the current frame.
+     */
+    private int length;
+
+    /**
+     * Number of board rows/columns actually visible (the viewport size,
+     * or the board size if it is smaller).
+     */
+    private final int visibleRows;
+    private final int visibleCols;
+
+    /**
+     * Glyph currently shown on screen for each viewport cell (row-major
+     * in screen coordinates), used to find the cells that need redrawing.
+     */
+    private final char[] shown;
+
+    /**
+     * Board coordinates of the top-left visible cell.
+     */
+    private int top;
+    private int left;
+
+    /**
+     * Minimap: each character summarizes a block of
+     * {@code minimapScale x minimapScale} tiles. Null when the whole board
+     * fits in the viewport.
+     */
+    private char[] minimap;
+    private int minimapScale;
+    private int minimapRows;
+    private int minimapCols;
+
+    /**
+     * For each minimap block, whether any of its tiles is explored
+     * (all true when there is no fog of war).
+     */
+    private boolean[] minimapRevealed;
+
+    /**
+     * Minimap blocks that became revealed since the last frame and still
+     * need to be drawn by a diff frame.
+     */
+    private int[] newlyRevealed = new int[16];
+    private int newlyRevealedCount;
+
+    /**
+     * Fog of war and its revision that {@link #minimapRevealed} reflects.
+     */
+    private FogOfWar seenFog;
+    private int seenFogRevision;
+
+    /**
+     * Minimap cell currently showing the party marker, or -1.
+     */
+    private int shownMinimapParty = -1;
+
+    /**
+     * Board revision the minimap was built from.
+     */
+    private int seenRevision;
+
+    /**
+     * True when the next frame must be drawn from scratch.
+     */
+    private boolean invalid = true;
+
+    /**
+     * Time spent building the last frame, in nanoseconds.
+     */
+    private long lastFrameNanos;
+
+    /**
+     * Number of bytes written for the last frame.
+     */
+    private int lastFrameBytes;
+
+    /**
+     * Create a renderer for the given board.
+     *
+     * @param board board to draw
+     */
+    public BoardRenderer(Board board) {
+        this(board, null);
+    }
+
+    /**
+     * Create a renderer for the given board and the monsters roaming it.
+     *
+     * @param board   board to draw
+     * @param roamers roaming monster groups to draw, or null
+     */
+    public BoardRenderer(Board board, RoamingMonsters roamers) {
+        this.board = board;
+        this.roamers = roamers;
+        this.visibleRows = Math.min(viewRows, board.getSize());
+        this.visibleCols = Math.min(viewCols, board.getSize());
+        this.shown = new char[visibleRows * visibleCols];
+        buildMinimap();
+    }
+
+    /**
+     * Force the next {@link #render(Party, String)} to redraw everything.
+     */
+    public void invalidate() {
+        invalid = true;
+    }
+
+    /**
+     * Draw one frame: either the full board or only the changed cells,
+     * followed by the status line and the frame statistics.
+     *
+     * @param party  party whose position is marked with "H"
+     * @param status message to show under the board (may be null)
+     */
+    public void render(Party party, String status) {
+        long start = System.nanoTime();
+        length = 0;
+
+        if (board.getRevision() != seenRevision) {
+            buildMinimap();
+            invalid = true;
+        }
+        refreshMinimapFog(party);
+        moveCamera(party);
+
+        boolean full = invalid;
+        if (full) {
+            appendFullBoard(party);
+            invalid = false;
+        } else {
+            appendChangedCells(party);
+            appendMinimapChanges(party);
+            moveCursor(footerLine(), 1);
+            append(clearToEnd);
+        }
+        if (status != null && !status.isEmpty()) {
+            append(status);
+        }
+        append('\n');
+
+        lastFrameNanos = System.nanoTime() - start;
+        lastFrameBytes = length;
+        append(String.format("[%s frame: %d bytes, %.3f ms | rows %d-%d, cols %d-%d of %dx%d]%n",
+                full ? "full" : "diff", lastFrameBytes, lastFrameNanos / 1_000_000.0,
+                top, top + visibleRows - 1, left, left + visibleCols - 1,
+                board.getSize(), board.getSize()));
+        flush();
+    }
+
+    /**
+     * @return time spent building the last frame, in nanoseconds
+     */
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    /**
+     * @return number of bytes written for the last frame (excluding the
+     *         statistics line itself)
+     */
+    public int getLastFrameBytes() {
+        return lastFrameBytes;
+    }
+
+    // ================= FRAME BUILDING =================
+
+    /**
+     * Centre the viewport on the party, clamped to the board edges.
+     */
+    private void moveCamera(Party party) {
+        int size = board.getSize();
+        int row = (party != null) ? party.getRow() : 0;
+        int col = (party != null) ? party.getCol() : 0;
+        top = Math.max(0, Math.min(row - visibleRows / 2, size - visibleRows));
+        left = Math.max(0, Math.min(col - visibleCols / 2, size - visibleCols));
+    }
+
+    /**
+     * Clear the screen and draw the whole viewport, the minimap (if any)
+     * and a one-line legend.
+     */
+    private void appendFullBoard(Party party) {
+        append(clearScreen);
+        for (int r = 0; r < visibleRows; r++) {
+            appendBorder();
+            appendMinimapRow(party, 2 * r);
+            append('\n');
+            for (int c = 0; c < visibleCols; c++) {
+                append('|');
+                char glyph = glyphAt(party, top + r, left + c);
+                appendCell(glyph, top + r, left + c);
+                shown[r * visibleCols + c] = glyph;
+            }
+            append('|');
+            appendMinimapRow(party, 2 * r + 1);
+            append('\n');
+        }
+        appendBorder();
+        appendMinimapRow(party, 2 * visibleRows);
+        append('\n');
+        // Kept to one line of at most 80 columns; footerLine() relies on it.
+        append("Legend: " + Tile.colorGreen + "H" + Tile.reset + " You  "
+                + Tile.colorCyan + "P" + Tile.reset + " Party  "
+                + Tile.colorYellow + "M" + Tile.reset + " Market  "
+                + Tile.colorRed + "X" + Tile.reset + " Blocked");
+        if (roamers != null) {
+            append("  " + Tile.colorMagenta + "&" + Tile.reset + " Monster");
+        }
+        if (party != null && party.getFogOfWar() != null) {
+            append("  \u2591 Unknown");
+        }
+        append("  (blank) Open\n");
+        newlyRevealedCount = 0;
+    }
+
+    /**
+     * Emit cursor-addressed updates for the viewport cells whose glyph
+     * changed since the last frame.
+     */
+    private void appendChangedCells(Party party) {
+        for (int r = 0; r < visibleRows; r++) {
+            for (int c = 0; c < visibleCols; c++) {
+                char glyph = glyphAt(party, top + r, left + c);
+                int index = r * visibleCols + c;
+                if (shown[index] != glyph) {
+                    // Cell content sits on line 2r+2, right after its "|".
+                    moveCursor(2 * r + 2, c * cellWidth + 2);
+                    appendCell(glyph, top + r, left + c);
+                    shown[index] = glyph;
+                }
+            }
+        }
+    }
+
+    /**
+     * Append the 5-character content of one cell.
+     */
+    private void appendCell(char glyph, int row, int col) {
+        if (glyph == 'H') {
+            append("  " + Tile.colorGreen + "H" + Tile.reset + "  ");
+        } else if (glyph == '?') {
+            append(unexploredCell);
+        } else if (glyph == 'P') {
+            append("  " + Tile.colorCyan + "P" + Tile.reset + "  ");
+        } else if (glyph == '&') {
+            append("  " + Tile.colorMagenta + "&" + Tile.reset + "  ");
+        } else {
+            append(board.getTile(row, col).render());
+        }
+    }
+
+    /**
+     * Append a horizontal border line ("+-----+-----+ ... +") without
+     * the trailing newline.
+     */
+    private void appendBorder() {
+        for (int c = 0; c < visibleCols; c++) {
+            append("+-----");
+        }
+        append('+');
+    }
+
+    // ================= MINIMAP =================
+
+    /**
+     * Downsample the board into the minimap. Each character covers a square
+     * block of tiles: "M" if the block contains a market, "X" if most of it
+     * is inaccessible, "." otherwise. Costs O(size * size), so it only runs
+     * when the board changes, never per frame.
+     */
+    private void buildMinimap() {
+        seenRevision = board.getRevision();
+        shownMinimapParty = -1;
+        seenFog = null;
+        seenFogRevision = -1;
+        newlyRevealedCount = 0;
+        int size = board.getSize();
+        if (size <= viewRows && size <= viewCols) {
+            minimap = null;
+            return;
+        }
+
+        int maxRows = 2 * visibleRows + 1;
+        minimapScale = Math.max(ceilDiv(size, maxRows), ceilDiv(size, minimapMaxCols));
+        minimapRows = ceilDiv(size, minimapScale);
+        minimapCols = ceilDiv(size, minimapScale);
+        minimap = new char[minimapRows * minimapCols];
+        minimapRevealed = new boolean[minimap.length];
+
+        for (int br = 0; br < minimapRows; br++) {
+            for (int bc = 0; bc < minimapCols; bc++) {
+                int blocked = 0;
+                int total = 0;
+                boolean market = false;
+                for (int r = br * minimapScale; r < Math.min(size, (br + 1) * minimapScale); r++) {
+                    for (int c = bc * minimapScale; c < Math.min(size, (bc + 1) * minimapScale); c++) {
+                        Tile tile = board.getTile(r, c);
+                        market |= tile.isMarket();
+                        if (!tile.isAccessible()) {
+                            blocked++;
+                        }
+                        total++;
+                    }
+                }
+                char glyph = market ? 'M' : (blocked * 2 > total ? 'X' : '.');
+                minimap[br * minimapCols + bc] = glyph;
+            }
+        }
+    }
+
+    /**
+     * Bring {@link #minimapRevealed} up to date with the party's fog of war.
+     * Exploration only ever grows, so after the first pass only blocks that
+     * are still hidden are re-checked, and only when the fog has changed.
+     * Blocks that turn visible are queued in {@link #newlyRevealed}.
+     */
+    private void refreshMinimapFog(Party party) {
+        if (minimap == null) {
+            return;
+        }
+        FogOfWar fog = (party != null) ? party.getFogOfWar() : null;
+        int fogRevision = (fog != null) ? fog.getRevision() : 0;
+        if (fog == seenFog && fogRevision == seenFogRevision) {
+            return;
+        }
+        if (fog != seenFog) {
+            // Different (or no) fog: start over and redraw everything.
+            Arrays.fill(minimapRevealed, false);
+            invalid = true;
+        }
+        seenFog = fog;
+        seenFogRevision = fogRevision;
+
+        for (int index = 0; index < minimap.length; index++) {
+            if (minimapRevealed[index]) {
+                continue;
+            }
+            int row = (index / minimapCols) * minimapScale;
+            int col = (index % minimapCols) * minimapScale;
+            if (fog == null || fog.anyExplored(row, col, row + minimapScale - 1, col + minimapScale - 1)) {
+                minimapRevealed[index] = true;
+                if (newlyRevealedCount == newlyRevealed.length) {
+                    newlyRevealed = Arrays.copyOf(newlyRevealed, newlyRevealed.length * 2);
+                }
+                newlyRevealed[newlyRevealedCount++] = index;
+            }
+        }
+    }
+
+    /**
+     * @return the character shown for a minimap block (blank if unexplored)
+     */
+    private char minimapGlyph(int index) {
+        return minimapRevealed[index] ? minimap[index] : ' ';
+    }
+
+    /**
+     * Append minimap row {@code line} (if it exists) after the grid line
+     * that was just written.
+     */
+    private void appendMinimapRow(Party party, int line) {
+        if (minimap == null || line >= minimapRows) {
+            return;
+        }
+        for (int i = 0; i < minimapGap; i++) {
+            append(' ');
+        }
+        int partyCell = minimapPartyCell(party);
+        for (int bc = 0; bc < minimapCols; bc++) {
+            int index = line * minimapCols + bc;
+            appendMinimapGlyph(index == partyCell ? 'H' : minimapGlyph(index));
+        }
+        shownMinimapParty = partyCell;
+    }
+
+    /**
+     * Draw minimap blocks that were explored since the last frame and,
+     * when the party crosses into another block, redraw the old and new
+     * block characters.
+     */
+    private void appendMinimapChanges(Party party) {
+        if (minimap == null) {
+            return;
+        }
+        int partyCell = minimapPartyCell(party);
+        for (int i = 0; i < newlyRevealedCount; i++) {
+            int index = newlyRevealed[i];
+            if (index != partyCell && index != shownMinimapParty) {
+                moveToMinimapCell(index);
+                appendMinimapGlyph(minimap[index]);
+            }
+        }
+        newlyRevealedCount = 0;
+        if (partyCell == shownMinimapParty) {
+            return;
+        }
+        if (shownMinimapParty >= 0) {
+            moveToMinimapCell(shownMinimapParty);
+            appendMinimapGlyph(minimapGlyph(shownMinimapParty));
+        }
+        if (partyCell >= 0) {
+            moveToMinimapCell(partyCell);
+            appendMinimapGlyph('H');
+        }
+        shownMinimapParty = partyCell;
+    }
+
+    private void moveToMinimapCell(int index) {
+        int column = visibleCols * cellWidth + 1 + minimapGap + index % minimapCols + 1;
+        moveCursor(index / minimapCols + 1, column);
+    }
+
+    private void appendMinimapGlyph(char glyph) {
+        switch (glyph) {
+            case 'H':
+                append(Tile.colorGreen + "H" + Tile.reset);
+                break;
+            case 'M':
+                append(Tile.colorYellow + "M" + Tile.reset);
+                break;
+            case 'X':
+                append(Tile.colorRed + "X" + Tile.reset);
+                break;
+            default:
+                append(glyph);
+                break;
+        }
+    }
+
+    /**
+     * @return index of the minimap block containing the party, or -1
+     */
+    private int minimapPartyCell(Party party) {
+        if (party == null) {
+            return -1;
+        }
+        return (party.getRow() / minimapScale) * minimapCols + party.getCol() / minimapScale;
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    /**
+     * @return the glyph that should be visible at (row, col): "H" for the
+     *         party, "?" for a tile the party has not explored, "P" for
+     *         another party and "&" for a monster group in sight, otherwise
+     *         a character identifying the tile type
+     */
+    private char glyphAt(Party party, int row, int col) {
+        if (party != null && party.getRow() == row && party.getCol() == col) {
+            return 'H';
+        }
+        FogOfWar fog = (party != null) ? party.getFogOfWar() : null;
+        if (fog != null && !fog.isExplored(row, col)) {
+            return '?';
+        }
+        boolean inSight = (fog == null || fog.isVisible(row, col));
+        int occupant = board.getOccupancy().occupantAt(row, col);
+        if (inSight && occupant != Occupancy.empty && (party == null || occupant != party.getId())) {
+            return 'P';
+        }
+        if (inSight && roamers != null && roamers.groupAt(row, col) != RoamingMonsters.none) {
+            return '&';
+        }
+        Tile tile = board.getTile(row, col);
+        if (tile.isMarket()) {
+            return 'M';
+        }
+        return tile.isAccessible() ? ' ' : 'X';
+    }
+
+    /**
+     * @return the screen line (1-based) right below the grid and legend,
+     *         where the status line starts
+     */
+    private int footerLine() {
+        return 2 * visibleRows + 3;
+    }
+
+    /**
+     * Append an absolute cursor move (1-based line and column).
+     */
+    private void moveCursor(int line, int column) {
+        append("\u001B[");
+        appendInt(line);
+        append(';');
+        appendInt(column);
+        append('H');
+    }
+
+    // ================= BUFFER HELPERS =================
+
+    private void append(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            append(text.charAt(i));
+        }
+    }
+
+    /**
+     * Append one character, encoding non-ASCII characters as UTF-8.
+     */
+    private void append(char ch) {
+        if (ch < 0x80) {
+            put((byte) ch);
+        } else if (ch < 0x800) {
+            put((byte) (0xC0 | (ch >> 6)));
+            put((byte) (0x80 | (ch & 0x3F)));
+        } else {
+            put((byte) (0xE0 | (ch >> 12)));
+            put((byte) (0x80 | ((ch >> 6) & 0x3F)));
+            put((byte) (0x80 | (ch & 0x3F)));
+        }
+    }
+
+    private void appendInt(int value) {
+        if (value >= 10) {
+            appendInt(value / 10);
+        }
+        put((byte) ('0' + value % 10));
+    }
+
+    private void put(byte b) {
+        if (length == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        buffer[length++] = b;
+    }
+
+    /**
+     * Write the whole frame with a single call. Anything still pending in
+     * {@link System#out} is flushed first so output stays in order.
+     */
+    private void flush() {
+        System.out.flush();
+        try {
+            out.write(buffer, 0, length);
+            out.flush();
+        } catch (IOException e) {
+            invalid = true;
+        }
+    }
+}
@@ -8,6 +8,21 @@ package Game;
  */
 public class CommonTile extends Tile {
 
+    /**
+     * The one common tile, shared by every common cell (see {@link Tile}).
+     */
+    public static final CommonTile instance = new CommonTile();
+
+    /**
+     * Pre-built cell string returned by {@link #render()}.
+     */
+    private static final String cell = "     ";
+
+    /**
+     * Private constructor: use {@link #instance}.
+     */
+    private CommonTile() { }
+
     /**
      * Common tiles are always accessible.
      *
@@ -27,7 +42,7 @@ public class CommonTile extends Tile {
      */
     @Override
     public String render() {
-        return "     ";
+        return cell;
     }
 
     /**
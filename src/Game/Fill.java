@@ -0,0 +1,55 @@
+package Game;
+
+/**
+ * One match between a buy and a sell order in the {@link AuctionHouse}.
+ * The price is that of the order that was already waiting in the book.
+ */
+public final class Fill {
+
+    private final int itemId;
+    private final int buyerId;
+    private final int sellerId;
+    private final int price;
+    private final int quantity;
+
+    /**
+     * The order that was waiting in the book.
+     */
+    private final Order resting;
+
+    Fill(int itemId, int buyerId, int sellerId, int price, int quantity, Order resting) {
+        this.itemId = itemId;
+        this.buyerId = buyerId;
+        this.sellerId = sellerId;
+        this.price = price;
+        this.quantity = quantity;
+        this.resting = resting;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    public int getBuyerId() {
+        return buyerId;
+    }
+
+    public int getSellerId() {
+        return sellerId;
+    }
+
+    /**
+     * @return price per copy
+     */
+    public int getPrice() {
+        return price;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    Order getResting() {
+        return resting;
+    }
+}
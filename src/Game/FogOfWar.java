@@ -0,0 +1,284 @@
+package Game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Tracks which tiles of the board a party has explored, plus the tiles
+ * currently in sight (within {@link #getRadius()} steps of the party,
+ * by Manhattan distance).
+ *
+ * Explored tiles are stored as bits in square chunks of
+ * {@code 64 x 64} tiles: each chunk is a {@code long[64]} holding one
+ * 64-bit row mask per tile row. Chunks are only allocated once something
+ * inside them is explored, so memory grows with the explored area
+ * (about 512 bytes per touched chunk) rather than the board area, and
+ * saving only writes the chunks that exist.
+ */
+public class FogOfWar {
+
+    /**
+     * Default sight radius, in steps.
+     */
+    public static final int defaultRadius = 2;
+
+    /**
+     * log2 of the chunk width/height; 64 so one chunk row is one long.
+     */
+    private static final int chunkShift = 6;
+    private static final int chunkSize = 1 << chunkShift;
+
+    /**
+     * The width/height of the board being explored.
+     */
+    private final int size;
+
+    /**
+     * Sight radius in steps.
+     */
+    private final int radius;
+
+    /**
+     * Number of chunks along one side of the board.
+     */
+    private final int chunksPerSide;
+
+    /**
+     * Explored bits, indexed by {@code chunkRow * chunksPerSide + chunkCol};
+     * null entries are chunks with nothing explored yet.
+     */
+    private final long[][] chunks;
+
+    /**
+     * Number of explored tiles.
+     */
+    private int exploredCount;
+
+    /**
+     * Incremented whenever new tiles become explored, so views that cache
+     * derived data (e.g. a minimap) can tell when to refresh it.
+     */
+    private int revision;
+
+    /**
+     * Tile the party was last revealed from, or -1 before the first reveal.
+     */
+    private int centerRow = -1;
+    private int centerCol = -1;
+
+    /**
+     * Create an unexplored map with the default sight radius.
+     *
+     * @param size width/height of the board
+     */
+    public FogOfWar(int size) {
+        this(size, defaultRadius);
+    }
+
+    /**
+     * Create an unexplored map.
+     *
+     * @param size   width/height of the board
+     * @param radius sight radius in steps (0 = only the party's own tile)
+     */
+    public FogOfWar(int size, int radius) {
+        if (size <= 0 || radius < 0) {
+            throw new IllegalArgumentException("Invalid fog of war: size " + size + ", radius " + radius);
+        }
+        this.size = size;
+        this.radius = radius;
+        this.chunksPerSide = (size + chunkSize - 1) >> chunkShift;
+        this.chunks = new long[chunksPerSide * chunksPerSide][];
+    }
+
+    /**
+     * Move the sight centre to (row, col) and mark every tile in sight as
+     * explored. Each row of the sight diamond is one contiguous bit range,
+     * so this costs O(radius) word operations regardless of board size.
+     *
+     * @return number of tiles that were explored for the first time
+     */
+    public int reveal(int row, int col) {
+        centerRow = row;
+        centerCol = col;
+        int added = 0;
+        for (int dr = -radius; dr <= radius; dr++) {
+            int r = row + dr;
+            if (r < 0 || r >= size) {
+                continue;
+            }
+            int reach = radius - Math.abs(dr);
+            added += markRange(r, Math.max(0, col - reach), Math.min(size - 1, col + reach));
+        }
+        if (added > 0) {
+            exploredCount += added;
+            revision++;
+        }
+        return added;
+    }
+
+    /**
+     * @return true if the tile at (row, col) has ever been in sight
+     */
+    public boolean isExplored(int row, int col) {
+        long[] chunk = chunks[chunkIndex(row, col)];
+        return chunk != null && (chunk[row & (chunkSize - 1)] & (1L << (col & (chunkSize - 1)))) != 0;
+    }
+
+    /**
+     * @return true if the tile at (row, col) is in sight right now
+     */
+    public boolean isVisible(int row, int col) {
+        return centerRow >= 0 && Math.abs(row - centerRow) + Math.abs(col - centerCol) <= radius;
+    }
+
+    /**
+     * Check whether any tile in the rectangle [minRow, maxRow] x
+     * [minCol, maxCol] (inclusive, clamped to the board) is explored.
+     * Tests whole 64-tile row masks at a time.
+     */
+    public boolean anyExplored(int minRow, int minCol, int maxRow, int maxCol) {
+        minRow = Math.max(0, minRow);
+        minCol = Math.max(0, minCol);
+        maxRow = Math.min(size - 1, maxRow);
+        maxCol = Math.min(size - 1, maxCol);
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c = (c | (chunkSize - 1)) + 1) {
+                long[] chunk = chunks[chunkIndex(r, c)];
+                if (chunk != null && (chunk[r & (chunkSize - 1)] & rangeMask(c, maxCol)) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of explored tiles
+     */
+    public int getExploredCount() {
+        return exploredCount;
+    }
+
+    /**
+     * @return a counter that changes whenever new tiles are explored
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    /**
+     * @return sight radius in steps
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * @return the width/height of the board being explored
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Write the explored tiles: size, radius, number of allocated chunks,
+     * then each allocated chunk as its index followed by its 64 row masks.
+     *
+     * @param out destination
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(radius);
+        int allocated = 0;
+        for (long[] chunk : chunks) {
+            if (chunk != null) {
+                allocated++;
+            }
+        }
+        out.writeInt(allocated);
+        for (int i = 0; i < chunks.length; i++) {
+            if (chunks[i] == null) {
+                continue;
+            }
+            out.writeInt(i);
+            for (long mask : chunks[i]) {
+                out.writeLong(mask);
+            }
+        }
+    }
+
+    /**
+     * Read explored tiles written by {@link #writeTo(DataOutput)}.
+     * The sight centre is not stored; call {@link #reveal(int, int)} with
+     * the party's position after loading.
+     *
+     * @param in source
+     * @return the restored fog of war
+     * @throws IOException if reading fails or the data is invalid
+     */
+    public static FogOfWar readFrom(DataInput in) throws IOException {
+        int size = in.readInt();
+        int radius = in.readInt();
+        if (size <= 0 || radius < 0) {
+            throw new IOException("Invalid fog of war header: size " + size + ", radius " + radius);
+        }
+        FogOfWar fog = new FogOfWar(size, radius);
+        int allocated = in.readInt();
+        if (allocated < 0 || allocated > fog.chunks.length) {
+            throw new IOException("Invalid fog of war chunk count: " + allocated);
+        }
+        for (int n = 0; n < allocated; n++) {
+            int index = in.readInt();
+            if (index < 0 || index >= fog.chunks.length || fog.chunks[index] != null) {
+                throw new IOException("Invalid fog of war chunk index: " + index);
+            }
+            long[] chunk = new long[chunkSize];
+            for (int r = 0; r < chunkSize; r++) {
+                chunk[r] = in.readLong();
+                fog.exploredCount += Long.bitCount(chunk[r]);
+            }
+            fog.chunks[index] = chunk;
+        }
+        return fog;
+    }
+
+    /**
+     * Mark tiles [fromCol, toCol] of one row as explored, allocating chunks
+     * as needed.
+     *
+     * @return number of newly explored tiles
+     */
+    private int markRange(int row, int fromCol, int toCol) {
+        int added = 0;
+        for (int c = fromCol; c <= toCol; c = (c | (chunkSize - 1)) + 1) {
+            int index = chunkIndex(row, c);
+            if (chunks[index] == null) {
+                chunks[index] = new long[chunkSize];
+            }
+            long[] chunk = chunks[index];
+            int line = row & (chunkSize - 1);
+            long mask = rangeMask(c, toCol);
+            added += Long.bitCount(mask & ~chunk[line]);
+            chunk[line] |= mask;
+        }
+        return added;
+    }
+
+    /**
+     * @return bit mask covering columns from {@code fromCol} up to
+     *         {@code toCol} or the end of fromCol's chunk, whichever is first
+     */
+    private static long rangeMask(int fromCol, int toCol) {
+        int low = fromCol & (chunkSize - 1);
+        int high = Math.min(toCol - (fromCol & ~(chunkSize - 1)), chunkSize - 1);
+        long upTo = (high == chunkSize - 1) ? -1L : (1L << (high + 1)) - 1;
+        return upTo & (-1L << low);
+    }
+
+    private int chunkIndex(int row, int col) {
+        return (row >> chunkShift) * chunksPerSide + (col >> chunkShift);
+    }
+}
@@ -3,7 +3,11 @@ package Game;
 import Entities.*;
 import Items.*;
 import Utility.GameData;
+import Utility.IntIntHashMap;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -12,6 +16,7 @@ import java.util.*;
  *     Handles hero party selection.
  *     Initializes the board, markets, and party position.
  *     Runs the main game loop: movement, markets, and random battles.
+ *     Moves the computer-controlled rival parties sharing the board.
  *
  * Domain objects like Board, Party, Hero, Market, and Battle
  * keep their own logic; Game just coordinates them.
@@ -23,6 +28,18 @@ public class Game {
      */
     private static final int boardSize = 8;
 
+    /**
+     * Number of computer-controlled parties wandering the board
+     * alongside the player's party.
+     */
+    private static final int rivalParties = 2;
+
+    /**
+     * Random tiles tried per rival before giving up on placing it off
+     * the markets.
+     */
+    private static final int rivalPlacementAttempts = 16;
+
     /**
      * Wrapper for all pre-loaded data: heroes, monsters, items, etc.
      */
@@ -49,10 +66,62 @@ public class Game {
     private Party party;
 
     /**
-     * 2D array of Market references aligned with the Board grid.
-     * For a market tile at (r, c), markets[r][c] holds the Market instance.
+     * Sparse lookup of Market instances by board position.
+     * For a market tile at (r, c), markets.get(r, c) holds the Market instance.
+     */
+    private SpatialIndex<Market> markets;
+
+    /**
+     * Game time, advanced once per world turn.
+     */
+    private final GameClock clock = new GameClock();
+
+    /**
+     * Monster groups roaming the board; touching one starts a battle.
+     */
+    private RoamingMonsters roamers;
+
+    /**
+     * Computer-controlled parties sharing the board with the player.
+     */
+    private final List<Party> rivals = new ArrayList<Party>();
+
+    /**
+     * Renderer used to draw the board in the main loop.
+     */
+    private BoardRenderer renderer;
+
+    /**
+     * Cached rows for the inventory item tables.
      */
-    private Market[][] markets;
+    private final ItemTable itemTable = new ItemTable();
+
+    /**
+     * Message shown under the board on the next frame (result of the last
+     * command), or null if there is nothing to report.
+     */
+    private String statusMessage;
+
+    /**
+     * Pre-baked board file to play on instead of generating a board,
+     * or null to generate one.
+     */
+    private final Path boardFile;
+
+    /**
+     * File market trades are recorded in, or null to not record them.
+     */
+    private final Path ledgerFile;
+
+    /**
+     * Open ledger for {@link #ledgerFile}, or null.
+     */
+    private TransactionLedger ledger;
+
+    /**
+     * Set when the party loses a battle; ends the main loop.
+     */
+    private boolean partyDefeated;
 
     /**
      * Construct a Game controller with the given game data and input.
@@ -61,8 +130,36 @@ public class Game {
      * @param scanner  input source for the console UI
      */
     public Game(GameData gameData, Scanner scanner) {
+        this(gameData, scanner, null);
+    }
+
+    /**
+     * Construct a Game controller that plays on a pre-baked board file.
+     *
+     * @param gameData  pre-loaded heroes, monsters, and items
+     * @param scanner   input source for the console UI
+     * @param boardFile board file written by {@link BoardFile#save}, or null
+     *                  to generate a board as usual
+     */
+    public Game(GameData gameData, Scanner scanner, Path boardFile) {
+        this(gameData, scanner, boardFile, null);
+    }
+
+    /**
+     * Construct a Game controller that can also record every market trade.
+     *
+     * @param gameData   pre-loaded heroes, monsters, and items
+     * @param scanner    input source for the console UI
+     * @param boardFile  board file written by {@link BoardFile#save}, or null
+     *                   to generate a board as usual
+     * @param ledgerFile file to append market trades to (see
+     *                   {@link TransactionLedger}), or null to not record them
+     */
+    public Game(GameData gameData, Scanner scanner, Path boardFile, Path ledgerFile) {
         this.gameData = gameData;
         this.scanner = scanner;
+        this.boardFile = boardFile;
+        this.ledgerFile = ledgerFile;
     }
 
     /**
@@ -79,8 +176,12 @@ public class Game {
             int choice = readIntInRange("Select an option (1-3): ", 1, 3);
             switch (choice) {
                 case 1:
-                    initializeBoardAndParty();
-                    runMainLoop();
+                    try {
+                        initializeBoardAndParty();
+                        runMainLoop();
+                    } finally {
+                        closeLedger();
+                    }
                     running = false;
                     break;
                 case 2:
@@ -99,21 +200,31 @@ public class Game {
      * Also initializes markets after the party is known.
      */
     private void initializeBoardAndParty() {
-        this.board = createAndConfirmBoard(boardSize);
+        this.board = loadBoardFile();
+        if (board == null) {
+            this.board = createAndConfirmBoard(boardSize);
+        }
         List<Hero> selectedHeroes = selectParty();
         this.party = new Party(selectedHeroes, board.getStartRow(), board.getStartCol());
+        party.setFogOfWar(new FogOfWar(board.getSize()));
+        party.enter(board);
+        placeRivals();
+        this.roamers = new RoamingMonsters(board, random.nextLong());
+        roamers.populate(party.getRow(), party.getCol());
+        this.renderer = new BoardRenderer(board, roamers);
         int partySize = selectedHeroes.size();
         initializeMarkets(partySize);
 
         System.out.println("\nParty created with " + selectedHeroes.size() + " hero(es).");
         System.out.println("Starting game...");
-        System.out.println("Use W/A/S/D to move, I for inventory, Q to quit.\n");
+        System.out.println("Use W/A/S/D to move, T to travel to the nearest market, I for inventory, Q to quit.\n");
     }
 
     /**
      * Initialize a Market for each market tile on the board.
      * Items are taken from GameData and distributed across markets
-     * in a round–robin fashion.
+     * by level band and region (see {@link MarketDistribution}). All
+     * markets lead to one shared auction house.
      *
      * @param partySize how many heroes are in the party (used by Market)
      */
@@ -123,32 +234,100 @@ public class Game {
             return;
         }
 
-        int size = board.getSize();
-        markets = new Market[size][size];
+        markets = new SpatialIndex<Market>(16);
+        AuctionHouse auctionHouse = new AuctionHouse(gameData.getCatalog());
+        ledger = openLedger();
         List<Item> pool = new ArrayList<Item>();
         pool.addAll(gameData.getWeapons());
         pool.addAll(gameData.getArmors());
         pool.addAll(gameData.getPotions());
         pool.addAll(gameData.getSpells());
 
-        Collections.shuffle(pool, new Random());
-
+        List<List<Item>> perMarketStock = MarketDistribution.assign(pool, positions, board);
         int marketCount = positions.size();
-        List<List<Item>> perMarketStock = new ArrayList<List<Item>>();
-        for (int i = 0; i < marketCount; i++) {
-            perMarketStock.add(new ArrayList<Item>());
-        }
-
-        for (int i = 0; i < pool.size(); i++) {
-            perMarketStock.get(i % marketCount).add(pool.get(i));
-        }
 
         for (int i = 0; i < marketCount; i++) {
             int[] pos = positions.get(i);
             int row = pos[0];
             int col = pos[1];
-            Market market = new Market(perMarketStock.get(i), partySize, scanner);
-            markets[row][col] = market;
+            long seed = board.getSeed() ^ SpatialIndex.pack(row, col) * 0x9E3779B97F4A7C15L;
+            Market market = new Market(perMarketStock.get(i), partySize, scanner, clock, seed);
+            market.setAuctionHouse(auctionHouse);
+            market.setLedger(ledger, i);
+            markets.put(row, col, market);
+        }
+    }
+
+    /**
+     * Open the trade ledger, if one was given.
+     *
+     * @return the open ledger, or null if none was given or opening failed
+     */
+    private TransactionLedger openLedger() {
+        if (ledgerFile == null) {
+            return null;
+        }
+        try {
+            TransactionLedger opened = TransactionLedger.open(ledgerFile);
+            System.out.println("Recording market trades in " + ledgerFile + " as run " + opened.getRun()
+                    + " (" + opened.size() + " earlier trades).");
+            return opened;
+        } catch (IOException e) {
+            System.out.println("Could not open trade ledger (" + e.getMessage() + "). Trades will not be recorded.");
+            return null;
+        }
+    }
+
+    /**
+     * Flush and close the trade ledger, if one is open.
+     */
+    private void closeLedger() {
+        if (ledger == null) {
+            return;
+        }
+        try {
+            ledger.close();
+        } catch (IOException e) {
+            System.out.println("Could not close trade ledger: " + e.getMessage());
+        }
+        ledger = null;
+    }
+
+    /**
+     * Load the pre-baked board, if one was given.
+     *
+     * @return the loaded Board, or null if none was given or loading failed
+     */
+    private Board loadBoardFile() {
+        if (boardFile == null) {
+            return null;
+        }
+        try {
+            Board loaded = BoardFile.load(boardFile);
+            System.out.println("Loaded " + loaded.getSize() + "x" + loaded.getSize()
+                    + " board from " + boardFile + ".");
+            return loaded;
+        } catch (IOException e) {
+            System.out.println("Could not load board file (" + e.getMessage() + "). Generating a new map.");
+            return null;
+        }
+    }
+
+    /**
+     * Ask the user where to save a board and write it there.
+     */
+    private void saveBoard(Board candidate) {
+        System.out.print("File to save the map to: ");
+        String line = scanner.nextLine().trim();
+        if (line.isEmpty()) {
+            System.out.println("No file given; the map was not saved.");
+            return;
+        }
+        try {
+            BoardFile.save(candidate, Paths.get(line));
+            System.out.println("Map saved to " + line + ".");
+        } catch (IOException e) {
+            System.out.println("Could not save the map: " + e.getMessage());
         }
     }
 
@@ -163,14 +342,17 @@ public class Game {
             Board candidate = new Board(size);
             Party previewParty = new Party(candidate.getStartRow(), candidate.getStartCol());
 
-            System.out.println("\nPreview of generated map:");
-            candidate.print(previewParty);
-            System.out.print("Do you want to use this map? (Y to accept, anything else to reroll): ");
+            new BoardRenderer(candidate).render(previewParty, "Preview of generated map.");
+            System.out.print("Do you want to use this map? (Y to accept, S to save and accept, anything else to reroll): ");
 
             String line = scanner.nextLine().trim();
             if (!line.isEmpty() && Character.toUpperCase(line.charAt(0)) == 'Y') {
                 return candidate;
             }
+            if (!line.isEmpty() && Character.toUpperCase(line.charAt(0)) == 'S') {
+                saveBoard(candidate);
+                return candidate;
+            }
 
             System.out.println("Okay, generating a new map...\n");
         }
@@ -179,14 +361,17 @@ public class Game {
     /**
      * Main game loop: show map, read command, and dispatch high-level actions.
      *     Movement with W/A/S/D.
+     *     Travel to the nearest market with T.
      *     Open party inventory with I.
      *     Quit with Q.
      */
     private void runMainLoop() {
         boolean running = true;
-        while (running) {
-            board.print(party);
-            System.out.print("Move (W/A/S/D), I = Inventory, or Q to quit: ");
+        while (running && !partyDefeated) {
+            String region = Terrain.describe(board.getRegion(party.getRow(), party.getCol()));
+            renderer.render(party, statusMessage == null ? region : region + " - " + statusMessage);
+            statusMessage = null;
+            System.out.print("Move (W/A/S/D), T = Travel to nearest market, I = Inventory, or Q to quit: ");
 
             String line = scanner.nextLine().trim();
             if (line.isEmpty()) {
@@ -202,19 +387,27 @@ public class Game {
                 case 'A':
                 case 'S':
                 case 'D':
-                    party.move(cmd, board);
-                    handleTileAfterMove();
+                    statusMessage = party.move(cmd, board);
+                    if (!advanceWorld()) {
+                        handleTileAfterMove();
+                    }
+                    break;
+                case 'T':
+                    travelToNearestMarket();
                     break;
                 case 'I':
                     openInventoryMenu();
+                    renderer.invalidate();
                     break;
                 default:
-                    System.out.println("Unknown command. Use W/A/S/D to move, I for inventory, Q to quit.");
+                    statusMessage = "Unknown command. Use W/A/S/D to move, T to travel, I for inventory, Q to quit.";
                     break;
             }
         }
 
-        System.out.println("Goodbye!");
+        if (!partyDefeated) {
+            System.out.println("Goodbye!");
+        }
     }
 
     /**
@@ -384,6 +577,43 @@ public class Game {
         }
     }
 
+    /**
+     * Walk the party to the nearest market it has explored, over explored
+     * tiles (see {@link Board#pathToNearestMarket(int, int, FogOfWar)}), so
+     * travel never reveals what the fog of war hides. The whole path is
+     * applied before the map is drawn again, so the board is rendered
+     * once instead of once per step.
+     * Roaming monsters move on every step, and they or random battles
+     * can still interrupt the trip on common tiles.
+     */
+    private void travelToNearestMarket() {
+        List<int[]> path = board.pathToNearestMarket(party.getRow(), party.getCol(), party.getFogOfWar());
+        if (path.isEmpty()) {
+            if (board.getTile(party.getRow(), party.getCol()).isMarket()) {
+                handleTileAfterMove();
+            } else {
+                statusMessage = "You know of no market you can reach from here.";
+            }
+            return;
+        }
+
+        for (int i = 0; i < path.size(); i++) {
+            int[] step = path.get(i);
+            if (!party.stepTo(step[0], step[1], board)) {
+                statusMessage = "The way is blocked. You stop travelling.";
+                return;
+            }
+            boolean last = (i == path.size() - 1);
+            if (advanceWorld() || (!last && maybeStartRandomBattle())) {
+                statusMessage = "The battle interrupts your journey.";
+                return;
+            }
+        }
+
+        statusMessage = "You travelled " + path.size() + " tile(s) to a market.";
+        handleTileAfterMove();
+    }
+
     /**
      * Handle the tile the party has just moved onto:
      *     If it's a market tile, optionally open the market.
@@ -393,6 +623,12 @@ public class Game {
         Tile current = board.getTile(party.getRow(), party.getCol());
 
         if (current.isMarket()) {
+            // The market prompt and menus print below the board.
+            renderer.invalidate();
+            if (statusMessage != null) {
+                System.out.println(statusMessage);
+                statusMessage = null;
+            }
 
             if (markets == null) {
                 System.out.println("Error: markets not initialized.");
@@ -401,7 +637,7 @@ public class Game {
 
             int row = party.getRow();
             int col = party.getCol();
-            Market market = markets[row][col];
+            Market market = markets.get(row, col);
 
             if (market == null) {
                 System.out.println("Error: no market assigned to this tile.");
@@ -445,30 +681,132 @@ public class Game {
         return result;
     }
 
+    /**
+     * Drop the rival parties on random tiles (or the nearest free ones),
+     * never on a market tile.
+     */
+    private void placeRivals() {
+        int size = board.getSize();
+        for (int i = 0; i < rivalParties; i++) {
+            for (int attempt = 0; attempt < rivalPlacementAttempts; attempt++) {
+                Party rival = new Party(random.nextInt(size), random.nextInt(size));
+                if (!rival.enter(board)) {
+                    return;
+                }
+                if (!board.getTile(rival.getRow(), rival.getCol()).isMarket()) {
+                    rivals.add(rival);
+                    break;
+                }
+                board.getOccupancy().release(rival.getRow(), rival.getCol(), rival.getId());
+            }
+        }
+    }
+
+    /**
+     * Move every rival party one random step. A rival never steps onto a
+     * market tile, so it cannot block a market (or the way into one)
+     * for the player; the board's occupancy grid keeps it off tiles
+     * other parties stand on.
+     */
+    private void moveRivals() {
+        for (Party rival : rivals) {
+            int row = rival.getRow();
+            int col = rival.getCol();
+            switch (random.nextInt(4)) {
+                case 0: row--; break;
+                case 1: row++; break;
+                case 2: col--; break;
+                default: col++; break;
+            }
+            if (board.isInside(row, col) && !board.getTile(row, col).isMarket()) {
+                rival.stepTo(row, col, board);
+            }
+        }
+    }
+
+    /**
+     * Let the rest of the world take its turn after the party moved:
+     * one tick of game time passes, rival parties step, then the roaming
+     * monster groups.
+     * A group on the party's tile, either before or after the groups move,
+     * attacks and is removed from the board if the heroes win.
+     *
+     * @return true if a battle took place
+     */
+    private boolean advanceWorld() {
+        clock.advance();
+        if (fightRoamerAtParty()) {
+            return true;
+        }
+        moveRivals();
+        roamers.tick(party.getRow(), party.getCol());
+        return fightRoamerAtParty();
+    }
+
+    /**
+     * Start a battle against the roaming group on the party's tile, if any.
+     * The group leaves the board however the encounter ends (even when no
+     * monsters could be matched to the party), so it never attacks twice.
+     *
+     * @return true if a battle took place
+     */
+    private boolean fightRoamerAtParty() {
+        int group = roamers.groupAt(party.getRow(), party.getCol());
+        if (group == RoamingMonsters.none) {
+            return false;
+        }
+
+        renderer.invalidate();
+        System.out.println("A roaming group of monsters catches up with you!");
+        boolean fought = fight(board.getRegion(party.getRow(), party.getCol()));
+        roamers.remove(group);
+        if (fought && !partyDefeated) {
+            statusMessage = "You defeated a roaming group of monsters.";
+        }
+        return fought;
+    }
+
     /**
      * Randomly decide if a battle starts on a common tile.
+     * The chance and the monster level band come from the encounter table
+     * of the region (biome and danger level) the party is standing in.
      * If so, create a balanced monster group and run a Battle.
+     *
+     * @return true if a battle took place
      */
-    private void maybeStartRandomBattle() {
-        double chance = 0.3;
+    private boolean maybeStartRandomBattle() {
+        int region = board.getRegion(party.getRow(), party.getCol());
 
-        if (random.nextDouble() > chance) {
-            return;
+        if (random.nextDouble() >= Terrain.encounterRate(region)) {
+            return false;
         }
 
+        renderer.invalidate();
         System.out.println("You feel a dark presence...");
+        return fight(region);
+    }
 
-        List<Monster> monsters = createMonstersForEncounter();
+    /**
+     * Create a monster group for the given region and run a Battle against it.
+     * Ends the game if the heroes lose: {@link #partyDefeated} is set, and
+     * the main loop stops once the current command has returned.
+     *
+     * @param region packed region value of the party's tile
+     * @return true if a battle took place
+     */
+    private boolean fight(int region) {
+        List<Monster> monsters = createMonstersForEncounter(region);
         if (monsters.isEmpty()) {
-            return;
+            return false;
         }
 
         Battle battle = new Battle(party, monsters, scanner);
         boolean heroesWon = battle.run();
 
         if (!heroesWon) {
-            System.exit(0);
+            partyDefeated = true;
         }
+        return true;
     }
 
     /**
@@ -492,12 +830,14 @@ public class Game {
     }
 
     /**
-     * Create a list of monsters for an encounter, with levels roughly
-     * around the party's reference level.
+     * Create a list of monsters for an encounter, with levels in the
+     * region's level band around the party's reference level.
      * The number of monsters equals the party size, and monsters are
      * cloned from templates in GameData.
+     *
+     * @param region packed region value of the party's tile
      */
-    private List<Monster> createMonstersForEncounter() {
+    private List<Monster> createMonstersForEncounter(int region) {
         List<Monster> allMonsters = gameData.getMonsters();
         if (allMonsters == null || allMonsters.isEmpty()) {
             System.out.println("No monsters available in game data.");
@@ -506,9 +846,8 @@ public class Game {
 
         int partySize = party.getMembers().size();
         int partyLevel = getPartyReferenceLevel();
-        int levelTolerance = 1;
-        int minLevel = Math.max(1, partyLevel - levelTolerance);
-        int maxLevel = partyLevel + levelTolerance;
+        int minLevel = Math.max(1, partyLevel + Terrain.minLevelOffset(region));
+        int maxLevel = Math.max(minLevel, partyLevel + Terrain.maxLevelOffset(region));
 
         List<Monster> candidates = new ArrayList<Monster>();
         for (Monster m : allMonsters) {
@@ -662,9 +1001,11 @@ public class Game {
     /**
      * Simple listing of all items the hero carries, grouped by type,
      * and showing quantity and whether a row is currently equipped.
+     * Copies of the same item share one row, found by catalog id.
      */
     private void printHeroItems(Hero hero) {
-        List<Item> items = hero.getInventory().getItems();
+        Inventory inventory = hero.getInventory();
+        List<Item> items = inventory.getItems();
 
         System.out.println("\nItems for " + hero.getName() + ":");
 
@@ -682,78 +1023,45 @@ public class Game {
             byType.get(key).add(it);
         }
 
-        String equippedWeaponKey = null;
-        String equippedArmorKey  = null;
-
-        if (hero.getEquippedWeapon() != null) {
-            equippedWeaponKey = joinColumns(hero.getEquippedWeapon().getColumnValues());
-        }
-        if (hero.getEquippedArmor() != null) {
-            equippedArmorKey = joinColumns(hero.getEquippedArmor().getColumnValues());
-        }
+        Weapon equippedWeapon = hero.getEquippedWeapon();
+        Armor equippedArmor = hero.getEquippedArmor();
 
         for (Map.Entry<Class<?>, List<Item>> entry : byType.entrySet()) {
             List<Item> group = entry.getValue();
             if (group.isEmpty()) continue;
 
             Item first = group.get(0);
-            String[] headers = first.getColumnHeaders();
-
-            System.out.println("\n-- " + first.getClass().getSimpleName() + "s --");
-            Map<String, Integer> qtyMap = new LinkedHashMap<String, Integer>();
-            Map<String, Item> repMap = new LinkedHashMap<String, Item>();
-
-            for (Item it : group) {
-                String key = joinColumns(it.getColumnValues());
-                Integer old = qtyMap.get(key);
-                if (old == null) old = 0;
-                qtyMap.put(key, old + 1);
-                if (!repMap.containsKey(key)) {
-                    repMap.put(key, it);
-                }
-            }
+            StringBuilder out = new StringBuilder();
+            ItemTable.newLine(out);
+            ItemTable.newLine(out.append("-- ").append(first.getClass().getSimpleName()).append("s --"));
 
-            System.out.printf("%-3s ", "#");
-            for (String header : headers) {
-                System.out.printf("%-15s ", header);
-            }
-            System.out.printf("%-10s %-5s%n", "Equipped", "Qty");
+            itemTable.appendHeader(out, first, true);
+            ItemTable.appendCell(out, "Equipped", 10).append(' ');
+            ItemTable.newLine(ItemTable.appendCell(out, "Qty", 5));
 
+            IntIntHashMap listed = new IntIntHashMap(group.size());
             int rowIndex = 1;
-            for (Map.Entry<String, Integer> row : qtyMap.entrySet()) {
-                String key = row.getKey();
-                Item rep   = repMap.get(key);
-                String[] values = rep.getColumnValues();
-                int qty    = row.getValue();
+            for (Item rep : group) {
+                if (rep.getId() != Item.noId) {
+                    if (listed.containsKey(rep.getId())) {
+                        continue;
+                    }
+                    listed.put(rep.getId(), rowIndex);
+                }
+                int qty = inventory.countOf(rep);
                 String equippedFlag = "";
-                if (rep instanceof Weapon && key.equals(equippedWeaponKey)) {
-                    equippedFlag = "Yes";
-                } else if (rep instanceof Armor && key.equals(equippedArmorKey)) {
+                if (rep.equals(equippedWeapon) || rep.equals(equippedArmor)) {
                     equippedFlag = "Yes";
                 }
 
-                System.out.printf("%-3d ", rowIndex++);
-                for (String value : values) {
-                    System.out.printf("%-15s ", value);
-                }
-                System.out.printf("%-10s %-5d%n", equippedFlag, qty);
+                itemTable.appendRow(out, rowIndex++, rep, ItemTable.basePrice);
+                ItemTable.appendCell(out, equippedFlag, 10).append(' ');
+                ItemTable.newLine(ItemTable.appendCell(out, qty, 5));
             }
+            ItemTable.flush(out);
         }
     }
 
-    /**
-     * Helper to join column values into a unique string key.
-     * (Used for grouping identical items.)
-     */
-    private String joinColumns(String[] cols) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < cols.length; i++) {
-            if (i > 0) sb.append("|");
-            sb.append(cols[i]);
-        }
-        return sb.toString();
-    }
-
     /**
      * Menu for changing equipment (weapon/armor) of a given hero.
      *
@@ -797,13 +1105,7 @@ public class Game {
      * Weapon-changing logic from the overworld/inventory context.
      */
     private boolean changeWeapon(Hero hero) {
-        List<Item> all = hero.getInventory().getItems();
-        List<Weapon> weapons = new ArrayList<Weapon>();
-        for (Item it : all) {
-            if (it instanceof Weapon) {
-                weapons.add((Weapon) it);
-            }
-        }
+        List<Weapon> weapons = hero.getInventory().getWeapons();
 
         if (weapons.isEmpty()) {
             System.out.println("No weapons in inventory.");
@@ -846,13 +1148,7 @@ public class Game {
      * Armor-changing logic from the overworld/inventory context.
      */
     private boolean changeArmor(Hero hero) {
-        List<Item> all = hero.getInventory().getItems();
-        List<Armor> armors = new ArrayList<Armor>();
-        for (Item it : all) {
-            if (it instanceof Armor) {
-                armors.add((Armor) it);
-            }
-        }
+        List<Armor> armors = hero.getInventory().getArmors();
 
         if (armors.isEmpty()) {
             System.out.println("No armor in inventory.");
@@ -955,6 +1251,7 @@ public class Game {
     private void printInstructions() {
         System.out.println("\n=== Instructions ===");
         System.out.println(" - Use W/A/S/D to move around the map.");
+        System.out.println(" - T: travel along the shortest known path to the nearest market you have explored.");
         System.out.println(" - I: open party inventory.");
         System.out.println(" - Markets (M) let you buy/sell and equip items.");
         System.out.println(" - Battles may start randomly on common tiles.");
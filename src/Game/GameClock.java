@@ -0,0 +1,32 @@
+package Game;
+
+/**
+ * Game time, counted in world ticks. One tick passes every time the rest
+ * of the world takes its turn after the party moves (see
+ * {@code Game.advanceWorld}); time does not pass in menus or battles.
+ *
+ * Systems that change over time (market prices, restocks) read the clock
+ * when they are used and catch up on the elapsed ticks, instead of being
+ * updated on every tick.
+ */
+public class GameClock {
+
+    /**
+     * Ticks elapsed since the game started.
+     */
+    private long now;
+
+    /**
+     * @return ticks elapsed since the game started
+     */
+    public long now() {
+        return now;
+    }
+
+    /**
+     * Let one tick pass.
+     */
+    public void advance() {
+        now++;
+    }
+}
@@ -7,6 +7,21 @@ package Game;
  */
 public class InaccessibleTile extends Tile {
 
+    /**
+     * The one inaccessible tile, shared by every inaccessible cell (see {@link Tile}).
+     */
+    public static final InaccessibleTile instance = new InaccessibleTile();
+
+    /**
+     * Pre-built cell string returned by {@link #render()}.
+     */
+    private static final String cell = "  " + colorRed + "X" + reset + "  ";
+
+    /**
+     * Private constructor: use {@link #instance}.
+     */
+    private InaccessibleTile() { }
+
     /**
      * Inaccessible tiles cannot be entered by the party.
      *
@@ -26,7 +41,7 @@ public class InaccessibleTile extends Tile {
      */
     @Override
     public String render() {
-        return "  " + colorRed + "X" + reset + "  ";
+        return cell;
     }
 
     /**
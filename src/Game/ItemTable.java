@@ -0,0 +1,217 @@
+package Game;
+
+import Items.Item;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders item tables (market lists, inventories) from the columns each
+ * item describes through {@link Items.TableDisplayable}.
+ *
+ * Items never change, so the padded text of every item's row is built
+ * once, on first display, and cached by catalog id; the header line is
+ * cached per item class. Rendering a table appends the cached rows to one
+ * {@link StringBuilder}, formatting only what changes between displays:
+ * the row number, a live price in the "Price" column, and whatever
+ * columns the caller appends (quantity, equipped flag). The caller then
+ * writes the whole table with one {@link #flush(StringBuilder)}.
+ */
+public final class ItemTable {
+
+    /**
+     * Pass as the price to show the item's own (base) price.
+     */
+    public static final int basePrice = -1;
+
+    /**
+     * Width of an item column and of the row number column; every cell
+     * is followed by one space.
+     */
+    private static final int cellWidth = 15;
+    private static final int indexWidth = 3;
+
+    /**
+     * Header lines (without the row number column), by item class.
+     */
+    private final Map<Class<?>, String> headers = new HashMap<>();
+
+    /**
+     * Cached rows, indexed by catalog id.
+     */
+    private Row[] rows = new Row[32];
+
+    /**
+     * Pre-rendered cells of one item: the cells before the "Price"
+     * column, the price cell, and the cells after it. Items without a
+     * price column have everything in {@code head}.
+     */
+    private static final class Row {
+        final Item item;
+        final String head;
+        final String price;
+        final String tail;
+
+        Row(Item item, String head, String price, String tail) {
+            this.item = item;
+            this.head = head;
+            this.price = price;
+            this.tail = tail;
+        }
+    }
+
+    /**
+     * Append the header line of an item's table, without a line break, so
+     * the caller can add headers for its own columns.
+     *
+     * @param out          table being built
+     * @param item         any item of the table's type
+     * @param includeIndex whether rows start with a row number column (#)
+     */
+    public void appendHeader(StringBuilder out, Item item, boolean includeIndex) {
+        if (includeIndex) {
+            appendCell(out, "#", indexWidth).append(' ');
+        }
+        String header = headers.get(item.getClass());
+        if (header == null) {
+            StringBuilder line = new StringBuilder();
+            for (String column : item.getColumnHeaders()) {
+                appendCell(line, column, cellWidth).append(' ');
+            }
+            header = line.toString();
+            headers.put(item.getClass(), header);
+        }
+        out.append(header);
+    }
+
+    /**
+     * Append an item's row, without a line break, so the caller can add
+     * its own columns.
+     *
+     * @param out    table being built
+     * @param number row number to show, or 0 for no row number column
+     * @param item   item to show
+     * @param price  price to show in the "Price" column, or
+     *               {@link #basePrice} for the item's own price
+     */
+    public void appendRow(StringBuilder out, int number, Item item, int price) {
+        if (number > 0) {
+            appendCell(out, number, indexWidth).append(' ');
+        }
+        Row row = rowOf(item);
+        out.append(row.head);
+        if (row.price != null) {
+            if (price == basePrice) {
+                out.append(row.price);
+            } else {
+                appendCell(out, price, cellWidth).append(' ');
+            }
+        }
+        out.append(row.tail);
+    }
+
+    /**
+     * Append a whole table of items with no extra columns.
+     *
+     * @param out          table being built
+     * @param items        items to show, at least one
+     * @param includeIndex whether to number the rows
+     */
+    public void appendTable(StringBuilder out, List<? extends Item> items, boolean includeIndex) {
+        appendHeader(out, items.get(0), includeIndex);
+        newLine(out);
+        for (int i = 0; i < items.size(); i++) {
+            appendRow(out, includeIndex ? i + 1 : 0, items.get(i), basePrice);
+            newLine(out);
+        }
+    }
+
+    /**
+     * Append a value left-aligned in a cell of the given width (like
+     * {@code %-<width>s}); longer values are not cut.
+     *
+     * @return {@code out}
+     */
+    public static StringBuilder appendCell(StringBuilder out, String value, int width) {
+        out.append(value);
+        return pad(out, width - value.length());
+    }
+
+    /**
+     * Append a number left-aligned in a cell of the given width (like
+     * {@code %-<width>d}), without creating a string for it.
+     *
+     * @return {@code out}
+     */
+    public static StringBuilder appendCell(StringBuilder out, int value, int width) {
+        int start = out.length();
+        out.append(value);
+        return pad(out, width - (out.length() - start));
+    }
+
+    /**
+     * End the current line.
+     *
+     * @return {@code out}
+     */
+    public static StringBuilder newLine(StringBuilder out) {
+        return out.append(System.lineSeparator());
+    }
+
+    /**
+     * Write a finished table to standard output in one go.
+     */
+    public static void flush(StringBuilder out) {
+        System.out.print(out);
+        System.out.flush();
+    }
+
+    /**
+     * @return the cached row of an item, rendering it on first use
+     */
+    private Row rowOf(Item item) {
+        int id = item.getId();
+        if (id == Item.noId) {
+            return render(item);
+        }
+        if (id >= rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(rows.length * 2, id + 1));
+        }
+        Row row = rows[id];
+        if (row == null || row.item != item) {
+            row = render(item);
+            rows[id] = row;
+        }
+        return row;
+    }
+
+    /**
+     * Pad every cell of an item and split the result around the "Price"
+     * column.
+     */
+    private static Row render(Item item) {
+        String[] headerNames = item.getColumnHeaders();
+        String[] values = item.getColumnValues();
+        int priceColumn = Arrays.asList(headerNames).indexOf("Price");
+        StringBuilder head = new StringBuilder();
+        StringBuilder price = new StringBuilder();
+        StringBuilder tail = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            StringBuilder target = (priceColumn < 0 || i < priceColumn) ? head : (i == priceColumn ? price : tail);
+            appendCell(target, values[i], cellWidth).append(' ');
+        }
+        return new Row(item, head.toString(), priceColumn < 0 ? null : price.toString(), tail.toString());
+    }
+
+    /**
+     * Append {@code count} spaces (nothing if count is not positive).
+     */
+    private static StringBuilder pad(StringBuilder out, int count) {
+        for (int i = 0; i < count; i++) {
+            out.append(' ');
+        }
+        return out;
+    }
+}
@@ -0,0 +1,51 @@
+package Game;
+
+import java.util.Arrays;
+
+/**
+ * {@link StockTable} for a market only one session trades in: a plain
+ * {@code int[]}, with no synchronization.
+ */
+public class LocalStockTable implements StockTable {
+
+    private final int[] quantities;
+
+    /**
+     * @param capacity number of slots
+     */
+    public LocalStockTable(int capacity) {
+        this.quantities = new int[capacity];
+    }
+
+    private LocalStockTable(int[] quantities) {
+        this.quantities = quantities;
+    }
+
+    @Override
+    public int get(int slot) {
+        return quantities[slot];
+    }
+
+    @Override
+    public int add(int slot, int count) {
+        return quantities[slot] += count;
+    }
+
+    @Override
+    public int take(int slot, int count) {
+        if (quantities[slot] < count) {
+            return -1;
+        }
+        return quantities[slot] -= count;
+    }
+
+    @Override
+    public int capacity() {
+        return quantities.length;
+    }
+
+    @Override
+    public StockTable copyOf(int capacity) {
+        return new LocalStockTable(Arrays.copyOf(quantities, capacity));
+    }
+}
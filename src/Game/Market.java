@@ -2,6 +2,8 @@ package Game;
 
 import Entities.Hero;
 import Items.*;
+
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -11,25 +13,80 @@ import java.util.*;
  *  - manage this market's stock of items
  *  - handle buy/sell menus for heroes
  *  - enforce "unique items" by removing bought items from stock
+ *  - price items by recent supply and demand (see {@link PricingEngine})
+ *  - replenish stock over game time (see {@link RestockSchedule})
+ *  - give access to the player-to-player {@link AuctionHouse}, if any
+ *  - record purchases and sales in a {@link TransactionLedger}, if any
  *
  * It does NOT know about the board or tile positions.
  */
 public class Market {
 
+    /**
+     * Limits on auction orders entered in the menus.
+     */
+    private static final int maxAuctionPrice = 1_000_000;
+    private static final int maxAuctionQuantity = 99;
+
     /**
      * Scanner used for all market input.
      */
     private final Scanner scanner;
 
     /**
-     * For each item in this market, how many copies are still available.
+     * Items for sale in this market and how many copies of each are left,
+     * indexed by category.
+     */
+    private final MarketStock stock;
+
+    /**
+     * Game clock, for time-stamping trades.
+     */
+    private final GameClock clock;
+
+    /**
+     * Current buy/sell prices of the stocked items.
      */
-    private final Map<Item, Integer> quantities;
+    private final PricingEngine pricing;
 
     /**
-     * Items currently for sale in this market (may shrink as stock runs out).
+     * When and how much of the initial stock comes back.
      */
-    private final List<Item> stock;
+    private final RestockSchedule restock;
+
+    /**
+     * Presorted indexes for filtered and sorted buy lists.
+     */
+    private final StockIndex index;
+
+    /**
+     * Suggests the best affordable weapon and armor upgrades.
+     */
+    private final UpgradeAdvisor advisor;
+
+    /**
+     * Cached rows for the item tables.
+     */
+    private final ItemTable table = new ItemTable();
+
+    /**
+     * Buy list view options: only items the hero can use and afford, and
+     * the order items are listed in.
+     */
+    private boolean usableOnly;
+    private StockIndex.SortOrder sortOrder = StockIndex.SortOrder.STOCKED;
+
+    /**
+     * Auction house reachable from this market, or null if there is none.
+     */
+    private AuctionHouse auctionHouse;
+
+    /**
+     * Ledger trades are recorded in, or null if they are not recorded,
+     * and this market's id in it.
+     */
+    private TransactionLedger ledger;
+    private int ledgerId;
 
     /**
      * Create a new Market with an initial stock and quantities based on party size.
@@ -37,32 +94,85 @@ public class Market {
      *     Weapons & Armor: one copy per party member.
      *     Potions & Spells: ten copies per party member.
      *     Other items: one copy per party member (fallback).
+     * These quantities are also the par the market restocks back up to:
+     * one copy per restock for weapons and armor, one per party member for
+     * potions and spells.
      *
-     * @param initialStock list of distinct items to sell in this market
+     * @param initialStock list of distinct items to sell in this market, in
+     *                     the order they are listed
      * @param partySize    number of heroes in the party (used to scale quantities)
      * @param scanner      input source for market menus
+     * @param clock        game clock that drives price changes and restocks
+     * @param seed         per-market seed fixing the restock schedule
      */
-    public Market(List<Item> initialStock, int partySize, Scanner scanner) {
-        this.stock = new ArrayList<>(initialStock);
-        this.quantities = new HashMap<>();
-        this.scanner = scanner;
+    public Market(List<Item> initialStock, int partySize, Scanner scanner, GameClock clock, long seed) {
+        this(new MarketStock(), scanner, clock, seed);
 
-        for (Item item : stock) {
+        for (Item item : initialStock) {
             int qty;
+            int perRestock;
             if (item instanceof Items.Weapon || item instanceof Items.Armor) {
                 qty = partySize;
+                perRestock = 1;
             } else if (item instanceof Items.Potion || item instanceof Items.Spell) {
                 qty = partySize * 10;
+                perRestock = partySize;
             } else {
                 qty = partySize;
+                perRestock = 1;
             }
-            quantities.put(item, qty);
+            restock.setPar(stock.add(item, qty), qty, perRestock);
         }
     }
 
+    /**
+     * Create a market front for an existing stock, e.g. one made by
+     * {@link MarketStock#shared} that other sessions trade in as well.
+     * Prices are tracked per market front, and a shared stock is never
+     * restocked by a front (each session would add its own copies).
+     *
+     * @param stock   stock to trade in
+     * @param scanner input source for market menus
+     * @param clock   game clock that drives price changes
+     */
+    public Market(MarketStock stock, Scanner scanner, GameClock clock) {
+        this(stock, scanner, clock, 0L);
+    }
+
+    private Market(MarketStock stock, Scanner scanner, GameClock clock, long seed) {
+        this.stock = stock;
+        this.clock = clock;
+        this.pricing = new PricingEngine(stock, clock);
+        this.restock = new RestockSchedule(stock, clock, seed);
+        this.index = new StockIndex(stock);
+        this.advisor = new UpgradeAdvisor(stock, pricing);
+        this.scanner = scanner;
+    }
+
+    /**
+     * Let heroes reach an auction house from this market.
+     *
+     * @param auctionHouse auction house shared by the markets, or null
+     */
+    public void setAuctionHouse(AuctionHouse auctionHouse) {
+        this.auctionHouse = auctionHouse;
+    }
+
+    /**
+     * Record every purchase and sale made in this market.
+     *
+     * @param ledger   ledger shared by the markets, or null to stop recording
+     * @param marketId id this market's trades are recorded under
+     */
+    public void setLedger(TransactionLedger ledger, int marketId) {
+        this.ledger = ledger;
+        this.ledgerId = marketId;
+    }
+
     /**
      * Entry point: open the market for the given party.
-     * Lets the player pick which hero is trading, and then
+     * First applies any restocks that fell due since the last visit,
+     * then lets the player pick which hero is trading, and then
      * opens that hero's buy/sell menu.
      *
      * @param party current party (used to choose which hero buys/sells)
@@ -73,6 +183,10 @@ public class Market {
             return;
         }
 
+        if (restock.catchUp() > 0) {
+            System.out.println("Fresh goods have arrived since your last visit.");
+        }
+
         boolean inMarket = true;
         while (inMarket) {
             System.out.println("\n=== Market ===");
@@ -104,9 +218,11 @@ public class Market {
 
     /**
      * Per–hero market menu.
+     * Shows the best weapon and armor upgrade the hero can afford here.
      * The user can:
      *     Buy items for this hero.
      *     Sell items from this hero's inventory.
+     *     Trade with other heroes in the auction house (if available).
      *
      * @param hero hero currently interacting with the market
      */
@@ -116,11 +232,16 @@ public class Market {
             System.out.println("\n=== Market: " + hero.getName() + " ===");
             System.out.println("Level: " + hero.getLevel() +
                     " | Gold: " + hero.getGold());
+            printUpgrade("Weapon", "damage", advisor.recommendWeapons(hero));
+            printUpgrade("Armor", "defense", advisor.recommendArmor(hero));
             System.out.println("1) Buy items");
             System.out.println("2) Sell items");
+            if (auctionHouse != null) {
+                System.out.println("3) Auction house");
+            }
             System.out.println("0) Back to hero selection");
 
-            int choice = readIntInRange("Choose an option: ", 0, 2);
+            int choice = readIntInRange("Choose an option: ", 0, auctionHouse != null ? 3 : 2);
             switch (choice) {
                 case 1:
                     handleBuy(hero);
@@ -128,6 +249,9 @@ public class Market {
                 case 2:
                     handleSell(hero);
                     break;
+                case 3:
+                    handleAuctionHouse(hero);
+                    break;
                 case 0:
                 default:
                     done = true;
@@ -140,54 +264,74 @@ public class Market {
 
     /**
      * Top-level "buy" menu for a hero:
-     * choose which category to view (weapons, armor, potions, spells).
+     * choose which category to view (weapons, armor, potions, spells),
+     * or change how the lists are filtered and sorted.
      */
     private void handleBuy(Hero hero) {
         boolean done = false;
         while (!done) {
             System.out.println("\n=== Buy Menu for " + hero.getName() + " ===");
             System.out.println("Gold: " + hero.getGold());
-            System.out.println("1) Weapons");
-            System.out.println("2) Armor");
-            System.out.println("3) Potions");
-            System.out.println("4) Spells");
+            MarketStock.Category[] categories = MarketStock.Category.values();
+            for (int i = 0; i < categories.length; i++) {
+                System.out.println((i + 1) + ") " + categories[i].getDisplayName());
+            }
+            int filterOption = categories.length + 1;
+            int sortOption = categories.length + 2;
+            System.out.println(filterOption + ") Show: " + (usableOnly
+                    ? "only what " + hero.getName() + " can use and afford"
+                    : "everything"));
+            System.out.println(sortOption + ") Sort: " + sortOrder.getDisplayName());
             System.out.println("0) Back");
 
-            int choice = readIntInRange("Choose a category: ", 0, 4);
-            switch (choice) {
-                case 1:
-                    buyFromList(hero, getWeaponsInStock(), "Weapons");
-                    break;
-                case 2:
-                    buyFromList(hero, getArmorsInStock(), "Armor");
-                    break;
-                case 3:
-                    buyFromList(hero, getPotionsInStock(), "Potions");
-                    break;
-                case 4:
-                    buyFromList(hero, getSpellsInStock(), "Spells");
-                    break;
-                case 0:
-                default:
-                    done = true;
-                    break;
+            int choice = readIntInRange("Choose a category: ", 0, sortOption);
+            if (choice == 0) {
+                done = true;
+            } else if (choice == filterOption) {
+                usableOnly = !usableOnly;
+            } else if (choice == sortOption) {
+                sortOrder = sortOrder.next();
+            } else {
+                buyFromList(hero, categories[choice - 1]);
             }
         }
     }
 
+    /**
+     * Items of a category to offer a hero, following the current view
+     * options. The plain view comes straight from the stock's cached
+     * lists; filtered or sorted views are answered by the {@link StockIndex}.
+     */
+    private List<Item> listForSale(Hero hero, MarketStock.Category category) {
+        if (!usableOnly && sortOrder == StockIndex.SortOrder.STOCKED) {
+            return stock.inStock(category);
+        }
+        int maxLevel = usableOnly ? hero.getLevel() : Integer.MAX_VALUE;
+        int maxPrice = usableOnly ? hero.getGold() : Integer.MAX_VALUE;
+        return index.query(category, maxLevel, maxPrice, sortOrder, pricing);
+    }
+
     /**
      * Buying loop for a specific item category.
-     * Shows a table of items + quantities, lets the user pick one,
-     * and calls {@link #attemptPurchase(Hero, Item)}.
-     * Sold-out items vanish when the list is reloaded.
+     * Shows a table of items + quantities, lets the user pick one and
+     * (when more than one copy is available and affordable) how many,
+     * and calls {@link #attemptPurchase(Hero, Item, int)}.
+     * Sold-out items (and, in the usable-and-affordable view, items the
+     * hero can no longer afford) vanish when the list is reloaded.
      *
-     * @param hero         hero making the purchase
-     * @param items        current list of items in this category that are in stock
-     * @param categoryName human-readable category name (e.g., "Weapons")
+     * @param hero     hero making the purchase
+     * @param category category of items to list
      */
-    private void buyFromList(Hero hero, List<? extends Item> items, String categoryName) {
+    private void buyFromList(Hero hero, MarketStock.Category category) {
+        String categoryName = category.getDisplayName();
+        List<Item> items = listForSale(hero, category);
         if (items.isEmpty()) {
-            System.out.println("No " + categoryName.toLowerCase() + " available for purchase in this market.");
+            if (usableOnly) {
+                System.out.println("No " + categoryName.toLowerCase() + " here that "
+                        + hero.getName() + " can use and afford.");
+            } else {
+                System.out.println("No " + categoryName.toLowerCase() + " available for purchase in this market.");
+            }
             return;
         }
 
@@ -204,17 +348,9 @@ public class Market {
                 done = true;
             } else {
                 Item item = items.get(choice - 1);
-                if (attemptPurchase(hero, item)) {
-                    if (item instanceof Weapon) {
-                        items = getWeaponsInStock();
-                    } else if (item instanceof Armor) {
-                        items = getArmorsInStock();
-                    } else if (item instanceof Potion) {
-                        items = getPotionsInStock();
-                    } else if (item instanceof Spell) {
-                        items = getSpellsInStock();
-                    }
-
+                int quantity = readQuantity(maxPurchasable(hero, item));
+                if (quantity > 0 && attemptPurchase(hero, item, quantity)) {
+                    items = listForSale(hero, category);
                     if (items.isEmpty()) {
                         System.out.println("No more " + categoryName.toLowerCase() + " in this market.");
                         done = true;
@@ -225,19 +361,47 @@ public class Market {
     }
 
     /**
-     * Performs the actual purchase, enforcing:
+     * @return how many copies of an item the hero could buy here at once
+     *         (at least 1, so a failing purchase still explains why)
+     */
+    private int maxPurchasable(Hero hero, Item item) {
+        int slot = stock.slotOf(item);
+        if (slot < 0) {
+            return 1;
+        }
+        int price = pricing.buyPrice(slot);
+        int affordable = price > 0 ? hero.getGold() / price : Integer.MAX_VALUE;
+        return Math.max(1, Math.min(stock.getQuantity(slot), affordable));
+    }
+
+    /**
+     * Ask how many copies to trade, unless only one is possible.
+     *
+     * @return copies chosen, or 0 if the player cancelled
+     */
+    private int readQuantity(int max) {
+        if (max <= 1) {
+            return 1;
+        }
+        return readIntInRange("How many (1-" + max + ", 0 to cancel)? ", 0, max);
+    }
+
+    /**
+     * Performs the actual purchase of one or more copies, checking
+     * everything once before changing anything:
      *     Level requirement (hero level >= item level).
-     *     Quantity requirement (item not sold out).
-     *     Gold requirement (hero has enough gold).
+     *     Quantity requirement (enough copies left).
+     *     Gold requirement (hero has enough gold for all copies).
      * On success:
      *     Gold is deducted from the hero.
-     *     Item is added to hero's inventory.
-     *     Market quantity for that item is decreased by 1.
+     *     The copies are added to the hero's inventory as one stack.
+     *     Market quantity for that item is decreased by the quantity.
+     *     The purchase is recorded, raising the item's price.
+     * All copies are charged the price quoted before the purchase.
      *
      * @return true if purchase succeeded, false otherwise
      */
-    private boolean attemptPurchase(Hero hero, Item item) {
-        int price = item.getPrice();
+    private boolean attemptPurchase(Hero hero, Item item, int quantity) {
         if (hero.getLevel() < item.getLevel()) {
             System.out.printf(
                     "Cannot buy %s: requires level %d, but %s is level %d.%n",
@@ -246,39 +410,98 @@ public class Market {
             return false;
         }
 
-        int currentQty = getQuantity(item);
-        if (currentQty <= 0) {
+        int slot = stock.slotOf(item);
+        if (slot < 0 || stock.getQuantity(slot) <= 0) {
             System.out.println("This item is sold out.");
             return false;
         }
+        if (stock.getQuantity(slot) < quantity) {
+            System.out.printf("Only %d copies of %s are left.%n", stock.getQuantity(slot), item.getName());
+            return false;
+        }
 
-        if (!hero.spendGold(price)) {
+        long cost = (long) pricing.buyPrice(slot) * quantity;
+        if (hero.getGold() < cost) {
             System.out.printf(
                     "Cannot buy %s: costs %d gold, but %s has only %d gold.%n",
-                    item.getName(), price, hero.getName(), hero.getGold()
+                    describeQuantity(item, quantity), cost, hero.getName(), hero.getGold()
             );
             return false;
         }
 
-        hero.getInventory().addItem(item);
-        quantities.put(item, currentQty - 1);
+        // Take the copies before paying: in a shared stock another session
+        // may have bought them since the check above.
+        if (!stock.take(slot, quantity)) {
+            System.out.println("This item is sold out.");
+            return false;
+        }
+        hero.spendGold((int) cost);
+        hero.getInventory().addItems(item, quantity);
+        pricing.recordBuy(slot, quantity);
+        recordTrade(hero, item, quantity, (int) (cost / quantity));
 
         System.out.printf(
                 "%s bought %s for %d gold.%n",
-                hero.getName(), item.getName(), price
+                hero.getName(), describeQuantity(item, quantity), cost
         );
         return true;
     }
 
+    /**
+     * Append a trade to the ledger, if there is one. If the ledger cannot
+     * be written, recording stops for this market; the trade itself stands.
+     *
+     * @param quantity copies bought (positive) or sold (negative)
+     * @param price    price per copy
+     */
+    private void recordTrade(Hero hero, Item item, int quantity, int price) {
+        if (ledger == null) {
+            return;
+        }
+        try {
+            ledger.append(clock.now(), hero.getId(), item.getId(), quantity, price, ledgerId);
+        } catch (IOException e) {
+            System.out.println("Could not record the trade (" + e.getMessage() + "); trades are no longer recorded.");
+            ledger = null;
+        }
+    }
+
+    /**
+     * @return e.g. "Sword" for one copy, "3 x Healing_Potion" for more
+     */
+    private static String describeQuantity(Item item, int quantity) {
+        return quantity == 1 ? item.getName() : quantity + " x " + item.getName();
+    }
+
+    /**
+     * Print one suggested upgrade line, if there is a suggestion.
+     */
+    private static void printUpgrade(String kind, String stat, UpgradeAdvisor.Recommendation recommendation) {
+        if (recommendation == null) {
+            return;
+        }
+        StringBuilder names = new StringBuilder();
+        for (Item item : recommendation.getItems()) {
+            if (names.length() > 0) {
+                names.append(" + ");
+            }
+            names.append(item.getName());
+        }
+        System.out.printf("%s upgrade: %s for %d gold (%s %d -> %d)%n", kind, names,
+                recommendation.getCost(), stat, recommendation.getCurrentValue(), recommendation.getNewValue());
+    }
+
     // ================= SELLING =================
 
     /**
      * Sell menu for a hero:
-     * shows their inventory and allows them to sell items for half price.
+     * shows their inventory and allows them to sell one or more copies
+     * of an item for half price.
      * When selling:
-     *     Item is removed from the hero's inventory.
-     *     Hero gains half the original price in gold.
-     *     Market stock/quantity of that item increases by 1.
+     *     The copies are removed from the hero's inventory.
+     *     Hero gains half the item's current price in this market per copy.
+     *     Market stock/quantity of that item increases by the quantity,
+     *     and the sale is recorded, lowering the item's price.
      */
     private void handleSell(Hero hero) {
         Inventory inventory = hero.getInventory();
@@ -303,18 +526,20 @@ public class Market {
                 done = true;
             } else {
                 Item item = items.get(choice - 1);
-                int sellPrice = item.getPrice() / 2;
+                int quantity = readQuantity(inventory.countOf(item));
+                if (quantity == 0) {
+                    continue;
+                }
+                int unitPrice = quoteSellPrice(item);
+                int sellPrice = unitPrice * quantity;
 
-                if (inventory.removeItem(item)) {
+                if (inventory.removeItems(item, quantity)) {
                     hero.addGold(sellPrice);
-                    if (!stock.contains(item)) {
-                        stock.add(item);
-                    }
-                    int currentQty = getQuantity(item);
-                    quantities.put(item, currentQty + 1);
+                    pricing.recordSell(stock.add(item, quantity), quantity);
+                    recordTrade(hero, item, -quantity, unitPrice);
 
                     System.out.printf("%s sold %s for %d gold.%n",
-                            hero.getName(), item.getName(), sellPrice);
+                            hero.getName(), describeQuantity(item, quantity), sellPrice);
                     items = inventory.getItems();
                     if (items.isEmpty()) {
                         System.out.println("No more items to sell.");
@@ -327,65 +552,178 @@ public class Market {
         }
     }
 
-    // ================= STOCK QUERIES =================
+    /**
+     * @return what this market pays for one copy of an item right now
+     */
+    private int quoteSellPrice(Item item) {
+        int slot = stock.slotOf(item);
+        return slot < 0 ? PricingEngine.sellPrice(item) : pricing.sellPrice(slot);
+    }
+
+    // ================= AUCTION HOUSE =================
 
     /**
-     * @return list of all weapons in stock that still have quantity > 0
+     * Auction house menu for a hero. Anything the hero's earlier orders
+     * earned is handed out on entry and after every order.
      */
-    private List<Weapon> getWeaponsInStock() {
-        List<Weapon> result = new ArrayList<>();
-        for (Item item : stock) {
-            if (item instanceof Weapon && getQuantity(item) > 0) {
-                result.add((Weapon) item);
+    private void handleAuctionHouse(Hero hero) {
+        collectAuctionProceeds(hero);
+        boolean done = false;
+        while (!done) {
+            System.out.println("\n=== Auction House: " + hero.getName() + " ===");
+            System.out.println("Gold: " + hero.getGold());
+            System.out.println("1) Post a sell order");
+            System.out.println("2) Post a buy order");
+            System.out.println("3) Cancel an order");
+            System.out.println("0) Back");
+
+            int choice = readIntInRange("Choose an option: ", 0, 3);
+            switch (choice) {
+                case 1:
+                    postSellOrder(hero);
+                    break;
+                case 2:
+                    postBuyOrder(hero);
+                    break;
+                case 3:
+                    cancelAuctionOrder(hero);
+                    break;
+                case 0:
+                default:
+                    done = true;
+                    break;
             }
+            collectAuctionProceeds(hero);
         }
-        return result;
     }
 
     /**
-     * @return list of all armor items in stock that still have quantity > 0
+     * Offer copies of an inventory item. The copies leave the inventory
+     * right away and are held by the auction house until sold or cancelled.
      */
-    private List<Armor> getArmorsInStock() {
-        List<Armor> result = new ArrayList<>();
-        for (Item item : stock) {
-            if (item instanceof Armor && getQuantity(item) > 0) {
-                result.add((Armor) item);
-            }
+    private void postSellOrder(Hero hero) {
+        Inventory inventory = hero.getInventory();
+        List<Item> items = inventory.getItems();
+        if (items.isEmpty()) {
+            System.out.println(hero.getName() + " has no items to sell.");
+            return;
         }
-        return result;
+        printItemTable(items, true);
+        int choice = readIntInRange("Item to sell (0 to cancel): ", 0, items.size());
+        if (choice == 0) {
+            return;
+        }
+        Item item = items.get(choice - 1);
+        if (item.getId() == Item.noId) {
+            System.out.println(item.getName() + " cannot be traded in the auction house.");
+            return;
+        }
+        printAuctionQuote(item);
+        int quantity = readIntInRange("Copies to sell: ", 1, inventory.countOf(item));
+        int price = readIntInRange("Lowest price per copy: ", 1, maxAuctionPrice);
+        inventory.removeItems(item, quantity);
+        Order order = auctionHouse.placeSell(hero.getId(), item, price, quantity);
+        reportOrder(order);
     }
 
     /**
-     * @return list of all potions in stock that still have quantity > 0
+     * Bid for copies of any catalog item. The full limit price is paid
+     * up front; the part not needed is refunded when the order fills at a
+     * lower price or is cancelled.
      */
-    private List<Potion> getPotionsInStock() {
-        List<Potion> result = new ArrayList<>();
-        for (Item item : stock) {
-            if (item instanceof Potion && getQuantity(item) > 0) {
-                result.add((Potion) item);
+    private void postBuyOrder(Hero hero) {
+        MarketStock.Category[] categories = MarketStock.Category.values();
+        for (int i = 0; i < categories.length; i++) {
+            System.out.println((i + 1) + ") " + categories[i].getDisplayName());
+        }
+        int categoryChoice = readIntInRange("Choose a category (0 to cancel): ", 0, categories.length);
+        if (categoryChoice == 0) {
+            return;
+        }
+        List<Item> items = new ArrayList<>();
+        for (Item item : auctionHouse.getCatalog().getItems()) {
+            if (MarketStock.Category.of(item) == categories[categoryChoice - 1]) {
+                items.add(item);
             }
         }
-        return result;
+        printItemTable(items, true);
+        int choice = readIntInRange("Item to bid for (0 to cancel): ", 0, items.size());
+        if (choice == 0) {
+            return;
+        }
+        Item item = items.get(choice - 1);
+        printAuctionQuote(item);
+        int quantity = readIntInRange("Copies to buy: ", 1, maxAuctionQuantity);
+        int price = readIntInRange("Highest price per copy: ", 1, maxAuctionPrice);
+        if (!hero.spendGold(price * quantity)) {
+            System.out.printf("That order needs %d gold, but %s has only %d gold.%n",
+                    price * quantity, hero.getName(), hero.getGold());
+            return;
+        }
+        Order order = auctionHouse.placeBuy(hero.getId(), item, price, quantity);
+        reportOrder(order);
     }
 
     /**
-     * @return list of all spells in stock that still have quantity > 0
+     * List the hero's open orders and cancel one of them.
      */
-    private List<Spell> getSpellsInStock() {
-        List<Spell> result = new ArrayList<>();
-        for (Item item : stock) {
-            if (item instanceof Spell && getQuantity(item) > 0) {
-                result.add((Spell) item);
-            }
+    private void cancelAuctionOrder(Hero hero) {
+        List<Order> orders = auctionHouse.openOrders(hero.getId());
+        if (orders.isEmpty()) {
+            System.out.println(hero.getName() + " has no open orders.");
+            return;
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            System.out.printf("%d) %s %d x %s at %d gold%n", i + 1,
+                    order.getSide() == Order.Side.BUY ? "Buy" : "Sell", order.getRemaining(),
+                    auctionHouse.getCatalog().get(order.getItemId()).getName(), order.getPrice());
+        }
+        int choice = readIntInRange("Order to cancel (0 to keep all): ", 0, orders.size());
+        if (choice == 0) {
+            return;
+        }
+        if (auctionHouse.cancel(orders.get(choice - 1))) {
+            System.out.println("Order cancelled.");
+        } else {
+            System.out.println("That order has already been filled.");
         }
-        return result;
     }
 
     /**
-     * Get how many copies of a given item are left in this market.
+     * Give a hero the gold and items the auction house holds for them.
      */
-    private int getQuantity(Item item) {
-        return quantities.getOrDefault(item, 0);
+    private void collectAuctionProceeds(Hero hero) {
+        AuctionHouse.Settlement settlement = auctionHouse.collect(hero.getId());
+        if (settlement.isEmpty()) {
+            return;
+        }
+        hero.addGold(settlement.getGold());
+        int[] copies = new int[1];
+        settlement.getItems().forEach((id, count) -> {
+            hero.getInventory().addItems(auctionHouse.getCatalog().get(id), count);
+            copies[0] += count;
+        });
+        System.out.printf("Auction house: %s receives %d gold and %d item(s).%n",
+                hero.getName(), settlement.getGold(), copies[0]);
+    }
+
+    private void printAuctionQuote(Item item) {
+        int bid = auctionHouse.bestBid(item);
+        int ask = auctionHouse.bestAsk(item);
+        System.out.printf("%s - best bid: %s, best ask: %s%n", item.getName(),
+                bid == AuctionHouse.noPrice ? "none" : String.valueOf(bid),
+                ask == AuctionHouse.noPrice ? "none" : String.valueOf(ask));
+    }
+
+    private void reportOrder(Order order) {
+        int traded = order.getQuantity() - order.getRemaining();
+        if (traded > 0) {
+            System.out.printf("%d of %d copies traded immediately.%n", traded, order.getQuantity());
+        }
+        if (order.isOpen()) {
+            System.out.printf("%d copies wait in the order book.%n", order.getRemaining());
+        }
     }
 
     // ================= PRINT HELPERS =================
@@ -403,34 +741,15 @@ public class Market {
             System.out.println("  (none)");
             return;
         }
-
-        String indexFormat = includeIndex ? "%-3s " : "";
-        Item first = items.get(0);
-        String[] headers = first.getColumnHeaders();
-        if (includeIndex) {
-            System.out.printf(indexFormat, "#");
-        }
-        for (String header : headers) {
-            System.out.printf("%-15s ", header);
-        }
-        System.out.println();
-        for (int i = 0; i < items.size(); i++) {
-            Item item = items.get(i);
-            String[] values = item.getColumnValues();
-
-            if (includeIndex) {
-                System.out.printf(indexFormat, String.valueOf(i + 1));
-            }
-            for (String value : values) {
-                System.out.printf("%-15s ", value);
-            }
-            System.out.println();
-        }
+        StringBuilder out = new StringBuilder();
+        table.appendTable(out, items, includeIndex);
+        ItemTable.flush(out);
     }
 
     /**
      * Same as {@link #printItemTable(List, boolean)}, but adds a "Qty"
-     * column at the end, showing how many copies remain in this market.
+     * column at the end, showing how many copies remain in this market,
+     * and shows the current market price in the "Price" column.
      * Used for buying, so players can see stock levels.
      */
     private void printItemTableWithQuantity(List<? extends Item> items, boolean includeIndex) {
@@ -438,30 +757,17 @@ public class Market {
             System.out.println("  (none)");
             return;
         }
-        String indexFormat = includeIndex ? "%-3s " : "";
-        Item first = items.get(0);
-        String[] headers = first.getColumnHeaders();
-        if (includeIndex) {
-            System.out.printf(indexFormat, "#");
-        }
-        for (String header : headers) {
-            System.out.printf("%-15s ", header);
-        }
-        System.out.printf("%-5s%n", "Qty");
+        StringBuilder out = new StringBuilder();
+        table.appendHeader(out, items.get(0), includeIndex);
+        ItemTable.newLine(ItemTable.appendCell(out, "Qty", 5));
 
         for (int i = 0; i < items.size(); i++) {
             Item item = items.get(i);
-            String[] values = item.getColumnValues();
-            int qty = getQuantity(item);
-
-            if (includeIndex) {
-                System.out.printf(indexFormat, String.valueOf(i + 1));
-            }
-            for (String value : values) {
-                System.out.printf("%-15s ", value);
-            }
-            System.out.printf("%-5d%n", qty);
+            int slot = stock.slotOf(item);
+            table.appendRow(out, includeIndex ? i + 1 : 0, item, pricing.buyPrice(slot));
+            ItemTable.newLine(ItemTable.appendCell(out, stock.getQuantity(slot), 5));
         }
+        ItemTable.flush(out);
     }
 
     // ================= INPUT HELPER =================
@@ -0,0 +1,142 @@
+package Game;
+
+import Items.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Decides which items each market of a board sells.
+ *
+ * Markets are grouped into level bands by the danger of the region they
+ * stand in (see {@link Terrain}): the safest regions sell the lowest-level
+ * items, the most dangerous ones the highest. The item pool is split into
+ * the same number of bands by level, and each band is dealt out among the
+ * markets of the matching band (or of the nearest band that has markets,
+ * so every item is sold somewhere). Which market of a band gets which item
+ * depends only on the board seed, so a loaded board gets the same markets.
+ *
+ * Every market's list is sorted by category, then level, then price before
+ * it is stocked. Since a {@link MarketStock} keeps each category's slots
+ * in stocking order, the stock is bucketed and ordered once, here, and
+ * listing it needs no sorting at runtime.
+ */
+public final class MarketDistribution {
+
+    /**
+     * Order items are stocked in: by buy-menu category, then level, then
+     * price, then catalog id so the order is total.
+     */
+    private static final Comparator<Item> stockingOrder = Comparator
+            .comparingInt((Item item) -> categoryRank(item))
+            .thenComparingInt(Item::getLevel)
+            .thenComparingInt(Item::getPrice)
+            .thenComparingInt(Item::getId);
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a static-only utility class.
+     */
+    private MarketDistribution() { }
+
+    /**
+     * Assign every item of the pool to one market.
+     *
+     * @param pool      distinct items to distribute
+     * @param positions market positions, as {row, col}
+     * @param board     board the markets stand on (for regions and the seed)
+     * @return one sorted list of items per market, in the order of
+     *         {@code positions}
+     */
+    public static List<List<Item>> assign(List<Item> pool, List<int[]> positions, Board board) {
+        int marketCount = positions.size();
+        List<List<Item>> perMarket = new ArrayList<>(marketCount);
+        for (int i = 0; i < marketCount; i++) {
+            perMarket.add(new ArrayList<>());
+        }
+        if (marketCount == 0 || pool.isEmpty()) {
+            return perMarket;
+        }
+
+        // Markets of each band, ordered by position so the deal does not
+        // depend on the order the board lists its markets in.
+        List<List<Integer>> marketsByBand = new ArrayList<>(Terrain.dangerLevels);
+        for (int band = 0; band < Terrain.dangerLevels; band++) {
+            marketsByBand.add(new ArrayList<>());
+        }
+        for (int i = 0; i < marketCount; i++) {
+            int[] pos = positions.get(i);
+            marketsByBand.get(Terrain.dangerOf(board.getRegion(pos[0], pos[1]))).add(i);
+        }
+        for (List<Integer> markets : marketsByBand) {
+            markets.sort(Comparator.comparingLong(i -> SpatialIndex.pack(positions.get(i)[0], positions.get(i)[1])));
+        }
+        int[] targetBand = nearestStockedBands(marketsByBand);
+
+        // Items of each band, in a seeded random order.
+        List<Item> items = new ArrayList<>(pool);
+        items.sort(Comparator.comparingInt(Item::getId));
+        Collections.shuffle(items, new Random(board.getSeed()));
+        int minLevel = Integer.MAX_VALUE;
+        int maxLevel = Integer.MIN_VALUE;
+        for (Item item : items) {
+            minLevel = Math.min(minLevel, item.getLevel());
+            maxLevel = Math.max(maxLevel, item.getLevel());
+        }
+
+        int[] dealt = new int[Terrain.dangerLevels];
+        for (Item item : items) {
+            int band = targetBand[levelBand(item.getLevel(), minLevel, maxLevel)];
+            List<Integer> markets = marketsByBand.get(band);
+            perMarket.get(markets.get(dealt[band]++ % markets.size())).add(item);
+        }
+
+        for (List<Item> stock : perMarket) {
+            stock.sort(stockingOrder);
+        }
+        return perMarket;
+    }
+
+    /**
+     * @return level band (0 to {@link Terrain#dangerLevels} - 1) of an item
+     *         level, splitting [minLevel, maxLevel] into equal ranges
+     */
+    private static int levelBand(int level, int minLevel, int maxLevel) {
+        int span = maxLevel - minLevel + 1;
+        return (int) ((long) (level - minLevel) * Terrain.dangerLevels / span);
+    }
+
+    /**
+     * For every band, the band whose markets sell its items: itself if it
+     * has markets, otherwise the nearest band that does (the lower one on
+     * a tie). At least one band must have markets.
+     */
+    private static int[] nearestStockedBands(List<List<Integer>> marketsByBand) {
+        int[] target = new int[Terrain.dangerLevels];
+        Arrays.fill(target, -1);
+        for (int band = 0; band < Terrain.dangerLevels; band++) {
+            for (int distance = 0; distance < Terrain.dangerLevels && target[band] < 0; distance++) {
+                if (band - distance >= 0 && !marketsByBand.get(band - distance).isEmpty()) {
+                    target[band] = band - distance;
+                } else if (band + distance < Terrain.dangerLevels
+                        && !marketsByBand.get(band + distance).isEmpty()) {
+                    target[band] = band + distance;
+                }
+            }
+        }
+        return target;
+    }
+
+    /**
+     * @return position of an item's category in the buy menu, or one past
+     *         the last category for other items
+     */
+    private static int categoryRank(Item item) {
+        MarketStock.Category category = MarketStock.Category.of(item);
+        return category == null ? MarketStock.Category.values().length : category.ordinal();
+    }
+}
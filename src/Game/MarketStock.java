@@ -0,0 +1,316 @@
+package Game;
+
+import Items.Armor;
+import Items.Item;
+import Items.ItemCatalog;
+import Items.Potion;
+import Items.Spell;
+import Items.Weapon;
+import Utility.IntIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Stock of a single {@link Market}: which items it sells and how many
+ * copies of each are left.
+ *
+ * Every distinct item gets a slot number when it is first stocked, found
+ * through a primitive map keyed by the item's catalog id.
+ * Quantities live in a {@link StockTable} indexed by slot, and each item's
+ * category is resolved once, when its slot is created. For every
+ * category the slots are kept in stocking order, together with a cached
+ * list of the ones still in stock; buying or selling only touches the
+ * quantity table, and a cached list is rebuilt only after an item of that
+ * category sells out or comes back, so listing a category is O(1) in the
+ * common case.
+ *
+ * A stock made by {@link #shared(ItemCatalog)} can be traded in by several
+ * sessions at once. It creates a slot for every catalog item up front, so
+ * the slot layout never changes afterwards, and keeps its quantities in a
+ * {@link SharedStockTable}, so buying is a lock-free compare-and-set and
+ * the last copy can only be taken once. Each cached list is stamped with
+ * its category's version, which every invalidation bumps, so a list built
+ * while another session sold out an item is never served as current.
+ */
+public class MarketStock {
+
+    /**
+     * Item categories, in the order they are offered in the buy menu.
+     */
+    public enum Category {
+        WEAPONS("Weapons"),
+        ARMOR("Armor"),
+        POTIONS("Potions"),
+        SPELLS("Spells");
+
+        private final String displayName;
+
+        Category(String displayName) {
+            this.displayName = displayName;
+        }
+
+        /**
+         * @return name shown in menus
+         */
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * @return the category an item belongs to, or null for other items
+         */
+        public static Category of(Item item) {
+            if (item instanceof Weapon) {
+                return WEAPONS;
+            } else if (item instanceof Armor) {
+                return ARMOR;
+            } else if (item instanceof Potion) {
+                return POTIONS;
+            } else if (item instanceof Spell) {
+                return SPELLS;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Item in each slot.
+     */
+    private Item[] items = new Item[16];
+
+    /**
+     * Copies left in each slot.
+     */
+    private StockTable quantities;
+
+    /**
+     * Category of each slot (null for items outside the four categories).
+     */
+    private Category[] categories = new Category[16];
+
+    /**
+     * Number of slots in use.
+     */
+    private int slotCount;
+
+    /**
+     * Slot of each stocked item, keyed by catalog id, for items coming
+     * from outside (e.g. sold by a hero).
+     */
+    private final IntIntHashMap slots = new IntIntHashMap();
+
+    /**
+     * Slots of each category, in stocking order: the first
+     * {@code categorySizes[c]} entries of {@code categorySlots[c]}.
+     */
+    private final int[][] categorySlots = new int[Category.values().length][8];
+    private final int[] categorySizes = new int[Category.values().length];
+
+    /**
+     * Cached in-stock items of each category, with the category version
+     * they were built at; an entry is stale once the version moved on.
+     */
+    private final AtomicReferenceArray<CachedList> inStockCache =
+            new AtomicReferenceArray<>(Category.values().length);
+    private final AtomicIntegerArray categoryVersions = new AtomicIntegerArray(Category.values().length);
+
+    /**
+     * In-stock list of a category as of one version.
+     */
+    private static final class CachedList {
+        final int version;
+        final List<Item> items;
+
+        CachedList(int version, List<Item> items) {
+            this.version = version;
+            this.items = items;
+        }
+    }
+
+    /**
+     * Create an empty stock for a market used by a single session.
+     */
+    public MarketStock() {
+        this(new LocalStockTable(16));
+    }
+
+    private MarketStock(StockTable quantities) {
+        this.quantities = quantities;
+    }
+
+    /**
+     * Create a stock that several sessions can trade in concurrently.
+     * Every catalog item gets a slot (with no copies) right away; stocking
+     * items outside the catalog later fails.
+     *
+     * @param catalog every item the stock may ever hold
+     * @return an empty shared stock
+     */
+    public static MarketStock shared(ItemCatalog catalog) {
+        MarketStock stock = new MarketStock(new SharedStockTable(catalog.size()));
+        for (Item item : catalog.getItems()) {
+            stock.add(item, 0);
+        }
+        return stock;
+    }
+
+    /**
+     * Add copies of an item, creating its slot if it is new.
+     * Items outside the four categories are kept but never listed.
+     *
+     * @param item     catalog item to stock
+     * @param quantity number of copies to add (may be 0)
+     * @return the item's slot
+     * @throws IllegalArgumentException if the item has no catalog id
+     * @throws IllegalStateException    if a shared stock would need a new slot
+     */
+    public int add(Item item, int quantity) {
+        if (item.getId() == Item.noId) {
+            throw new IllegalArgumentException("Item is not in the catalog: " + item.getName());
+        }
+        int slot = slots.get(item.getId(), -1);
+        if (slot < 0) {
+            slot = createSlot(item);
+        }
+        if (quantity > 0 && quantities.add(slot, quantity) == quantity) {
+            invalidate(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Take one copy from a slot.
+     *
+     * @return true if a copy was available and taken
+     */
+    public boolean take(int slot) {
+        return take(slot, 1);
+    }
+
+    /**
+     * Take several copies from a slot, all or nothing.
+     *
+     * @return true if enough copies were available and were taken
+     */
+    public boolean take(int slot, int count) {
+        int left = quantities.take(slot, count);
+        if (left < 0) {
+            return false;
+        }
+        if (left == 0) {
+            invalidate(slot);
+        }
+        return true;
+    }
+
+    /**
+     * @return the slot of an item, or -1 if this market never stocked it
+     */
+    public int slotOf(Item item) {
+        return item.getId() == Item.noId ? -1 : slots.get(item.getId(), -1);
+    }
+
+    /**
+     * @return number of slots; valid slots are [0, getSlotCount())
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * @return the item in a slot
+     */
+    public Item getItem(int slot) {
+        return items[slot];
+    }
+
+    /**
+     * @return copies left in a slot
+     */
+    public int getQuantity(int slot) {
+        return quantities.get(slot);
+    }
+
+    /**
+     * @return copies left of an item (0 if never stocked)
+     */
+    public int getQuantity(Item item) {
+        int slot = slotOf(item);
+        return slot < 0 ? 0 : quantities.get(slot);
+    }
+
+    /**
+     * @return read-only list of the items of a category that still have
+     *         copies left, in stocking order
+     */
+    public List<Item> inStock(Category category) {
+        int c = category.ordinal();
+        int version = categoryVersions.get(c);
+        CachedList cached = inStockCache.get(c);
+        if (cached != null && cached.version == version) {
+            return cached.items;
+        }
+        int[] members = categorySlots[c];
+        int size = categorySizes[c];
+        List<Item> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (quantities.get(members[i]) > 0) {
+                result.add(items[members[i]]);
+            }
+        }
+        List<Item> list = Collections.unmodifiableList(result);
+        inStockCache.set(c, new CachedList(version, list));
+        return list;
+    }
+
+    /**
+     * @return a counter that changes whenever an item of the category sells
+     *         out, comes back into stock, or is stocked for the first time,
+     *         so views derived from the in-stock items know when to rebuild
+     */
+    public int getVersion(Category category) {
+        return categoryVersions.get(category.ordinal());
+    }
+
+    /**
+     * Register a new item and give it the next slot.
+     */
+    private int createSlot(Item item) {
+        if (slotCount == quantities.capacity()) {
+            quantities = quantities.copyOf(slotCount * 2);
+        }
+        if (slotCount == items.length) {
+            items = Arrays.copyOf(items, slotCount * 2);
+            categories = Arrays.copyOf(categories, slotCount * 2);
+        }
+        int slot = slotCount++;
+        items[slot] = item;
+        slots.put(item.getId(), slot);
+        Category category = Category.of(item);
+        categories[slot] = category;
+        if (category != null) {
+            int c = category.ordinal();
+            if (categorySizes[c] == categorySlots[c].length) {
+                categorySlots[c] = Arrays.copyOf(categorySlots[c], categorySizes[c] * 2);
+            }
+            categorySlots[c][categorySizes[c]++] = slot;
+            categoryVersions.incrementAndGet(c);
+        }
+        return slot;
+    }
+
+    /**
+     * Mark the cached in-stock list of a slot's category as stale.
+     */
+    private void invalidate(int slot) {
+        Category category = categories[slot];
+        if (category != null) {
+            categoryVersions.incrementAndGet(category.ordinal());
+        }
+    }
+}
@@ -8,6 +8,21 @@ package Game;
  */
 public class MarketTile extends Tile {
 
+    /**
+     * The one market tile, shared by every market cell (see {@link Tile}).
+     */
+    public static final MarketTile instance = new MarketTile();
+
+    /**
+     * Pre-built cell string returned by {@link #render()}.
+     */
+    private static final String cell = "  " + colorYellow + "M" + reset + "  ";
+
+    /**
+     * Private constructor: use {@link #instance}.
+     */
+    private MarketTile() { }
+
     /**
      * Market tiles are walkable, so the party can stand here.
      *
@@ -37,7 +52,7 @@ public class MarketTile extends Tile {
      */
     @Override
     public String render() {
-        return "  " + colorYellow + "M" + reset + "  ";
+        return cell;
     }
 
     /**
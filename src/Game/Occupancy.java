@@ -0,0 +1,80 @@
+package Game;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Which party stands on each tile of a board.
+ *
+ * The grid is one packed array of party ids (row-major, {@link #empty}
+ * for a free tile), so "who is here?" is a single array read. Updates use
+ * compare-and-set on the individual tile, so parties driven from different
+ * threads can move at the same time without a global lock: two parties
+ * racing for the same tile cannot both get it.
+ */
+public class Occupancy {
+
+    /**
+     * Value of a tile nobody stands on. Party ids are always positive.
+     */
+    public static final int empty = 0;
+
+    /**
+     * The width/height of the board.
+     */
+    private final int size;
+
+    /**
+     * Party id per tile, row-major.
+     */
+    private final AtomicIntegerArray cells;
+
+    /**
+     * Create an empty occupancy grid.
+     *
+     * @param size width/height of the board
+     */
+    public Occupancy(int size) {
+        this.size = size;
+        this.cells = new AtomicIntegerArray(size * size);
+    }
+
+    /**
+     * @return id of the party on (row, col), or {@link #empty}
+     */
+    public int occupantAt(int row, int col) {
+        return cells.get(row * size + col);
+    }
+
+    /**
+     * Claim a free tile for a party.
+     *
+     * @return true if the tile was free and now belongs to the party
+     */
+    public boolean claim(int row, int col, int partyId) {
+        return cells.compareAndSet(row * size + col, empty, partyId);
+    }
+
+    /**
+     * Free a tile, if it is held by the given party.
+     *
+     * @return true if the party held the tile
+     */
+    public boolean release(int row, int col, int partyId) {
+        return cells.compareAndSet(row * size + col, partyId, empty);
+    }
+
+    /**
+     * Move a party from one tile to another. The target is claimed first
+     * and the source freed afterwards, so for a moment the party holds
+     * both tiles, but no other party can slip into either of them.
+     *
+     * @return true if the move succeeded, false if the target is taken
+     */
+    public boolean move(int partyId, int fromRow, int fromCol, int toRow, int toCol) {
+        if (!claim(toRow, toCol, partyId)) {
+            return false;
+        }
+        release(fromRow, fromCol, partyId);
+        return true;
+    }
+}
@@ -0,0 +1,99 @@
+package Game;
+
+/**
+ * A buy or sell order in the {@link AuctionHouse}: a trader offering to
+ * trade up to {@link #getRemaining()} copies of one catalog item at a
+ * limit price per copy.
+ *
+ * Orders are created and filled by the auction house; callers only read
+ * them (e.g. to list or cancel their open orders).
+ */
+public final class Order {
+
+    /**
+     * Which way the trader wants to trade.
+     */
+    public enum Side {
+        BUY,
+        SELL
+    }
+
+    private final long id;
+    private final int traderId;
+    private final int itemId;
+    private final Side side;
+    private final int price;
+    private final int quantity;
+
+    /**
+     * Copies still to be traded; 0 once filled or cancelled. Written under
+     * the lock of the item's order book.
+     */
+    private volatile int remaining;
+
+    Order(long id, int traderId, int itemId, Side side, int price, int quantity) {
+        this.id = id;
+        this.traderId = traderId;
+        this.itemId = itemId;
+        this.side = side;
+        this.price = price;
+        this.quantity = quantity;
+        this.remaining = quantity;
+    }
+
+    /**
+     * @return sequence number; lower ids were placed earlier
+     */
+    public long getId() {
+        return id;
+    }
+
+    public int getTraderId() {
+        return traderId;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    public Side getSide() {
+        return side;
+    }
+
+    /**
+     * @return limit price per copy: the most a buyer pays, or the least a
+     *         seller accepts
+     */
+    public int getPrice() {
+        return price;
+    }
+
+    /**
+     * @return copies originally ordered
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * @return copies not traded yet
+     */
+    public int getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * @return true while the order can still trade
+     */
+    public boolean isOpen() {
+        return remaining > 0;
+    }
+
+    void reduce(int count) {
+        remaining -= count;
+    }
+
+    void close() {
+        remaining = 0;
+    }
+}
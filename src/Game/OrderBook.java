@@ -0,0 +1,100 @@
+package Game;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resting orders of one item, in price-time priority: buyers paying more
+ * and sellers asking less come first, and within one price level orders
+ * trade in the order they arrived.
+ *
+ * Each side is a sorted map from price to a FIFO queue of the orders at
+ * that price, so the best price is found in O(log levels) and matching
+ * walks the queues from the front. The book is not thread-safe; the
+ * {@link AuctionHouse} locks it for every operation.
+ */
+public class OrderBook {
+
+    /**
+     * Buy orders, highest price first.
+     */
+    private final TreeMap<Integer, ArrayDeque<Order>> bids = new TreeMap<>(Collections.reverseOrder());
+
+    /**
+     * Sell orders, lowest price first.
+     */
+    private final TreeMap<Integer, ArrayDeque<Order>> asks = new TreeMap<>();
+
+    /**
+     * Match an incoming order against the other side for as long as the
+     * prices cross, then rest whatever is left in the book.
+     *
+     * @param order incoming order
+     * @param fills receives one entry per match, in matching order
+     */
+    public void submit(Order order, List<Fill> fills) {
+        boolean buying = order.getSide() == Order.Side.BUY;
+        TreeMap<Integer, ArrayDeque<Order>> opposite = buying ? asks : bids;
+        while (order.isOpen() && !opposite.isEmpty()) {
+            Map.Entry<Integer, ArrayDeque<Order>> best = opposite.firstEntry();
+            int price = best.getKey();
+            if (buying ? price > order.getPrice() : price < order.getPrice()) {
+                break;
+            }
+            ArrayDeque<Order> level = best.getValue();
+            while (order.isOpen() && !level.isEmpty()) {
+                Order resting = level.peekFirst();
+                int quantity = Math.min(order.getRemaining(), resting.getRemaining());
+                order.reduce(quantity);
+                resting.reduce(quantity);
+                Order buy = buying ? order : resting;
+                Order sell = buying ? resting : order;
+                fills.add(new Fill(order.getItemId(), buy.getTraderId(), sell.getTraderId(), price, quantity, resting));
+                if (!resting.isOpen()) {
+                    level.pollFirst();
+                }
+            }
+            if (level.isEmpty()) {
+                opposite.pollFirstEntry();
+            }
+        }
+        if (order.isOpen()) {
+            TreeMap<Integer, ArrayDeque<Order>> own = buying ? bids : asks;
+            own.computeIfAbsent(order.getPrice(), p -> new ArrayDeque<>()).addLast(order);
+        }
+    }
+
+    /**
+     * Take an open order out of the book.
+     *
+     * @return true if the order was resting here
+     */
+    public boolean remove(Order order) {
+        TreeMap<Integer, ArrayDeque<Order>> side = order.getSide() == Order.Side.BUY ? bids : asks;
+        ArrayDeque<Order> level = side.get(order.getPrice());
+        if (level == null || !level.remove(order)) {
+            return false;
+        }
+        if (level.isEmpty()) {
+            side.remove(order.getPrice());
+        }
+        return true;
+    }
+
+    /**
+     * @return highest buy price, or {@link AuctionHouse#noPrice}
+     */
+    public int bestBid() {
+        return bids.isEmpty() ? AuctionHouse.noPrice : bids.firstKey();
+    }
+
+    /**
+     * @return lowest sell price, or {@link AuctionHouse#noPrice}
+     */
+    public int bestAsk() {
+        return asks.isEmpty() ? AuctionHouse.noPrice : asks.firstKey();
+    }
+}
@@ -1,10 +1,12 @@
 package Game;
 
 import Entities.Hero;
+import Items.InventorySnapshot;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents the heroes travelling together on the board.
@@ -12,7 +14,15 @@ import java.util.List;
  * Responsibilities:
  *  - track which heroes are in the party
  *  - track the party's position on the board
+ *  - track which tiles the party has explored (optional fog of war)
+ *  - snapshot and restore the members' inventories
  *  - apply movement rules (but not handle input or board printing)
+ *
+ * Several parties can share one board. Each party has a unique id, and
+ * once it has {@link #enter(Board) entered} a board its position is also
+ * recorded in the board's {@link Occupancy} grid, which keeps parties off
+ * each other's tiles. A party should only be moved by one thread at a
+ * time, but different parties can move concurrently.
  */
 public class Party {
 
@@ -21,20 +31,36 @@ public class Party {
      */
     public static final int maxMembers = 3;
 
+    /**
+     * Source of unique party ids (always positive, see {@link Occupancy#empty}).
+     */
+    private static final AtomicInteger nextId = new AtomicInteger(1);
+
+    /**
+     * Unique id of this party, used in the board's occupancy grid.
+     */
+    private final int id = nextId.getAndIncrement();
+
     /**
      * List of heroes currently in the party.
      */
     private final List<Hero> members;
 
     /**
-     * Current row of the party on the board.
+     * Current row of the party on the board. Volatile because other
+     * threads (e.g. the one drawing the board) read it.
      */
-    private int row;
+    private volatile int row;
 
     /**
      * Current column of the party on the board.
      */
-    private int col;
+    private volatile int col;
+
+    /**
+     * Tiles explored by this party, or null if the whole map is known.
+     */
+    private FogOfWar fog;
 
     /**
      * Construct an empty party at the given starting coordinates.
@@ -103,6 +129,37 @@ public class Party {
         return members.size();
     }
 
+    /**
+     * Snapshot every member's inventory, e.g. for an autosave or to rewind
+     * after a simulated battle. O(1) per member.
+     *
+     * @return one snapshot per member, in member order
+     */
+    public InventorySnapshot[] snapshotInventories() {
+        InventorySnapshot[] snapshots = new InventorySnapshot[members.size()];
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = members.get(i).getInventory().snapshot();
+        }
+        return snapshots;
+    }
+
+    /**
+     * Put every member's inventory back to a snapshot taken by
+     * {@link #snapshotInventories()}.
+     *
+     * @param snapshots one snapshot per member, in member order
+     * @throws IllegalArgumentException if the party size has changed
+     */
+    public void restoreInventories(InventorySnapshot[] snapshots) {
+        if (snapshots.length != members.size()) {
+            throw new IllegalArgumentException("Expected " + members.size()
+                    + " inventory snapshots, got " + snapshots.length);
+        }
+        for (int i = 0; i < snapshots.length; i++) {
+            members.get(i).getInventory().restore(snapshots[i]);
+        }
+    }
+
     /**
      * @return true if the party has reached {@link #maxMembers}.
      */
@@ -110,6 +167,34 @@ public class Party {
         return members.size() >= maxMembers;
     }
 
+    /**
+     * @return unique id of this party
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Place the party on a board: claim its current position in the
+     * board's occupancy grid, or the nearest free accessible tile if that
+     * one is taken, and reveal the surroundings.
+     *
+     * @param board board to enter
+     * @return true if a free tile was found
+     */
+    public boolean enter(Board board) {
+        long spot = board.placeParty(id, row, col);
+        if (spot == SpatialIndex.none) {
+            return false;
+        }
+        row = SpatialIndex.rowOf(spot);
+        col = SpatialIndex.colOf(spot);
+        if (fog != null) {
+            fog.reveal(row, col);
+        }
+        return true;
+    }
+
     /**
      * @return current row of the party on the board.
      */
@@ -124,19 +209,42 @@ public class Party {
         return col;
     }
 
+    /**
+     * @return this party's fog of war, or null if the whole map is known
+     */
+    public FogOfWar getFogOfWar() {
+        return fog;
+    }
+
+    /**
+     * Attach a fog of war to this party and reveal the tiles in sight of
+     * its current position. Every later move reveals around the new tile.
+     *
+     * @param fog explored-tile tracker sized for the current board, or null
+     *            to make the whole map known
+     */
+    public void setFogOfWar(FogOfWar fog) {
+        this.fog = fog;
+        if (fog != null) {
+            fog.reveal(row, col);
+        }
+    }
+
     /**
      * Moves the party in the given direction if the target tile is valid.
      * This method:
      *     Translates WASD into row/column offsets.
      *     Asks the {@link Board} whether the target is inside the map.
-     *     Checks if the target tile is accessible.
+     *     Checks if the target tile is accessible and not taken by another party.
      *     Updates the party's position on success.
-     * It does not print or manage the board, only the party coordinates.
+     * It does not print or manage the board, only the party coordinates;
+     * the outcome is returned as a message for the caller to display.
      *
      * @param direction character command: W/A/S/D (case-insensitive)
      * @param board     current board to validate movement against
+     * @return a short message describing what happened
      */
-    public void move(char direction, Board board) {
+    public String move(char direction, Board board) {
         direction = Character.toUpperCase(direction);
         int newRow = row;
         int newCol = col;
@@ -147,24 +255,56 @@ public class Party {
             case 'A': newCol--; break;
             case 'D': newCol++; break;
             default:
-                System.out.println("Unknown command. Use W/A/S/D.");
-                return;
+                return "Unknown command. Use W/A/S/D.";
         }
 
         if (!board.isInside(newRow, newCol)) {
-            System.out.println("You can’t move outside the map!");
-            return;
+            return "You can’t move outside the map!";
         }
 
         Tile target = board.getTile(newRow, newCol);
         if (!target.isAccessible()) {
-            System.out.println("That space is inaccessible. Pick a different direction.");
-            return;
+            return "That space is inaccessible. Pick a different direction.";
+        }
+
+        if (!board.getOccupancy().move(id, row, col, newRow, newCol)) {
+            return "Another party is standing there.";
         }
 
         row = newRow;
         col = newCol;
+        if (fog != null) {
+            fog.reveal(row, col);
+        }
+
+        return "You moved onto a " + target.getDescription() + " tile.";
+    }
 
-        System.out.println("You moved onto a " + target.getDescription() + " tile.");
+    /**
+     * Step the party onto an adjacent tile without printing anything.
+     * Used when applying a precomputed path (e.g. travelling to the
+     * nearest market), where only the final position is shown.
+     *
+     * @param newRow target row (must be orthogonally adjacent)
+     * @param newCol target column (must be orthogonally adjacent)
+     * @param board  current board to validate movement against
+     * @return true if the party moved, false if the step was not valid
+     */
+    public boolean stepTo(int newRow, int newCol, Board board) {
+        if (Math.abs(newRow - row) + Math.abs(newCol - col) != 1) {
+            return false;
+        }
+        if (!board.isInside(newRow, newCol) || !board.getTile(newRow, newCol).isAccessible()) {
+            return false;
+        }
+        if (!board.getOccupancy().move(id, row, col, newRow, newCol)) {
+            return false;
+        }
+        row = newRow;
+        col = newCol;
+        if (fog != null) {
+            fog.reveal(row, col);
+        }
+        return true;
     }
 }
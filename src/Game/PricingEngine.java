@@ -0,0 +1,213 @@
+package Game;
+
+import Items.Item;
+
+import java.util.Arrays;
+
+/**
+ * Supply and demand prices for the items of one {@link MarketStock}.
+ *
+ * Every stock slot carries a "pressure": copies bought minus copies sold,
+ * decaying exponentially with game time (halving every
+ * {@link #halfLifeTicks} ticks). The current price is the item's base
+ * price scaled by {@code 1 + sensitivity * pressure}, clamped to
+ * [{@link #minFactor}, {@link #maxFactor}], so items that are bought a
+ * lot get dearer and items that are dumped on the market get cheaper,
+ * drifting back to the base price when trade stops.
+ *
+ * Nothing is rescanned: each slot stores its pressure together with the
+ * tick it was last brought up to date, and a transaction or quote first
+ * applies the decay for the elapsed ticks (one table lookup) and then the
+ * new volume. Quotes are also cached per slot for the current tick, so
+ * listing a whole market while the clock stands still is an array read
+ * per item.
+ */
+public class PricingEngine {
+
+    /**
+     * Ticks after which the effect of a trade on the price has halved.
+     */
+    private static final int halfLifeTicks = 25;
+
+    /**
+     * Relative price change per unit of pressure.
+     */
+    private static final double sensitivity = 0.08;
+
+    /**
+     * Bounds of the price multiplier.
+     */
+    private static final double minFactor = 0.5;
+    private static final double maxFactor = 2.0;
+
+    /**
+     * Fraction of the current price paid to heroes selling an item.
+     */
+    private static final double sellRatio = 0.5;
+
+    /**
+     * {@code decayPowers[t]} is the factor left after t ticks. After the
+     * end of the table (about 60 half-lives) pressure is treated as gone.
+     */
+    private static final double[] decayPowers = new double[halfLifeTicks * 60];
+
+    static {
+        double perTick = Math.pow(0.5, 1.0 / halfLifeTicks);
+        decayPowers[0] = 1.0;
+        for (int t = 1; t < decayPowers.length; t++) {
+            decayPowers[t] = decayPowers[t - 1] * perTick;
+        }
+    }
+
+    /**
+     * Stock whose slots are priced.
+     */
+    private final MarketStock stock;
+
+    /**
+     * Source of the current time.
+     */
+    private final GameClock clock;
+
+    /**
+     * Per-slot state, indexed by stock slot: net demand as of
+     * {@code updatedAt}, and the last quote with the tick it was made at
+     * ({@code quotedAt} is -1 when the quote must be recomputed).
+     */
+    private double[] pressure = new double[16];
+    private long[] updatedAt = new long[16];
+    private int[] quotes = new int[16];
+    private long[] quotedAt = new long[16];
+
+    /**
+     * See {@link #getVersion()}: bumped by every trade, and on the first
+     * call after the clock moved ({@code versionTick} is the tick of the
+     * last such call).
+     */
+    private long version;
+    private long versionTick = -1L;
+
+    /**
+     * Create a pricing engine for a stock.
+     *
+     * @param stock stock whose slots to price
+     * @param clock game clock the decay follows
+     */
+    public PricingEngine(MarketStock stock, GameClock clock) {
+        this.stock = stock;
+        this.clock = clock;
+        Arrays.fill(quotedAt, -1L);
+    }
+
+    /**
+     * @return what a hero pays for one copy from a slot right now
+     */
+    public int buyPrice(int slot) {
+        ensureCapacity(slot);
+        long now = clock.now();
+        if (quotedAt[slot] != now) {
+            int base = stock.getItem(slot).getPrice();
+            double factor = 1.0 + sensitivity * decayTo(slot, now);
+            factor = Math.max(minFactor, Math.min(maxFactor, factor));
+            quotes[slot] = (int) Math.round(base * factor);
+            quotedAt[slot] = now;
+        }
+        return quotes[slot];
+    }
+
+    /**
+     * @return what a hero gets for selling one copy of a slot's item right now
+     */
+    public int sellPrice(int slot) {
+        return (int) (buyPrice(slot) * sellRatio);
+    }
+
+    /**
+     * @return a number that changes whenever quotes may have changed since
+     *         the last call (the clock moved or a trade was recorded), so
+     *         anything built from quotes can tell when to rebuild
+     */
+    public long getVersion() {
+        long now = clock.now();
+        if (now != versionTick) {
+            versionTick = now;
+            version++;
+        }
+        return version;
+    }
+
+    /**
+     * @return the highest base price an item can have and still be quoted
+     *         at or below {@code price} (prices never drop below
+     *         {@link #minFactor} times the base price)
+     */
+    public static int maxBasePriceFor(int price) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) Math.floor(price / minFactor));
+    }
+
+    /**
+     * @return sell price of an item this market has never stocked
+     */
+    public static int sellPrice(Item item) {
+        return (int) (item.getPrice() * sellRatio);
+    }
+
+    /**
+     * Record copies bought from a slot, raising its price.
+     *
+     * @param slot     stock slot
+     * @param quantity copies bought
+     */
+    public void recordBuy(int slot, int quantity) {
+        addPressure(slot, quantity);
+    }
+
+    /**
+     * Record copies sold to a slot, lowering its price.
+     *
+     * @param slot     stock slot
+     * @param quantity copies sold
+     */
+    public void recordSell(int slot, int quantity) {
+        addPressure(slot, -quantity);
+    }
+
+    private void addPressure(int slot, int delta) {
+        ensureCapacity(slot);
+        long now = clock.now();
+        pressure[slot] = decayTo(slot, now) + delta;
+        quotedAt[slot] = -1L;
+        version++;
+    }
+
+    /**
+     * Bring a slot's pressure up to date.
+     *
+     * @return the pressure at tick {@code now}
+     */
+    private double decayTo(int slot, long now) {
+        long elapsed = now - updatedAt[slot];
+        if (elapsed > 0) {
+            pressure[slot] = elapsed < decayPowers.length ? pressure[slot] * decayPowers[(int) elapsed] : 0.0;
+            updatedAt[slot] = now;
+        }
+        return pressure[slot];
+    }
+
+    /**
+     * Grow the per-slot arrays to cover a slot the stock created since the
+     * last call. New slots start with no pressure.
+     */
+    private void ensureCapacity(int slot) {
+        if (slot < pressure.length) {
+            return;
+        }
+        int oldLength = pressure.length;
+        int capacity = Math.max(slot + 1, oldLength * 2);
+        pressure = Arrays.copyOf(pressure, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        quotes = Arrays.copyOf(quotes, capacity);
+        quotedAt = Arrays.copyOf(quotedAt, capacity);
+        Arrays.fill(quotedAt, oldLength, capacity, -1L);
+    }
+}
@@ -0,0 +1,130 @@
+package Game;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Replenishes a {@link MarketStock} over game time.
+ *
+ * Every slot has a par quantity (what the market normally carries) and an
+ * amount restored per restock. Restocks happen every {@code interval}
+ * ticks, shifted by a per-market {@code phase}; both come from the
+ * market's seed, so the same market always restocks at the same ticks
+ * and markets do not all restock together.
+ *
+ * Nothing runs while the market is idle. When the market is opened,
+ * {@link #catchUp()} counts the restock ticks passed since the last check
+ * and applies them all in one pass over the slots, topping each one up to
+ * at most its par. An untouched market costs nothing no matter how long
+ * the game runs.
+ */
+public class RestockSchedule {
+
+    /**
+     * Shortest and longest restock interval, in ticks.
+     */
+    private static final int minInterval = 20;
+    private static final int maxInterval = 40;
+
+    /**
+     * Stock being replenished.
+     */
+    private final MarketStock stock;
+
+    /**
+     * Source of the current time.
+     */
+    private final GameClock clock;
+
+    /**
+     * Ticks between restocks, and the offset of the first one.
+     */
+    private final int interval;
+    private final int phase;
+
+    /**
+     * Per-slot par quantity and copies restored per restock, indexed by
+     * stock slot. Slots without a par (e.g. items sold by heroes) are
+     * never restocked.
+     */
+    private int[] par = new int[16];
+    private int[] perRestock = new int[16];
+
+    /**
+     * Tick up to which restocks have been applied.
+     */
+    private long checkedAt;
+
+    /**
+     * Create the schedule of one market.
+     *
+     * @param stock stock to replenish
+     * @param clock game clock
+     * @param seed  per-market seed fixing the interval and phase
+     */
+    public RestockSchedule(MarketStock stock, GameClock clock, long seed) {
+        this.stock = stock;
+        this.clock = clock;
+        SplittableRandom random = new SplittableRandom(seed);
+        this.interval = minInterval + random.nextInt(maxInterval - minInterval + 1);
+        this.phase = random.nextInt(interval);
+        this.checkedAt = clock.now();
+    }
+
+    /**
+     * Set how many copies a slot should hold, and how many come back per
+     * restock.
+     *
+     * @param slot       stock slot
+     * @param parQty     normal quantity
+     * @param perRestock copies restored per restock (at least 1)
+     */
+    public void setPar(int slot, int parQty, int perRestock) {
+        if (slot >= par.length) {
+            int capacity = Math.max(slot + 1, par.length * 2);
+            par = Arrays.copyOf(par, capacity);
+            this.perRestock = Arrays.copyOf(this.perRestock, capacity);
+        }
+        par[slot] = parQty;
+        this.perRestock[slot] = Math.max(1, perRestock);
+    }
+
+    /**
+     * Apply every restock due since the last call.
+     *
+     * @return number of copies added to the stock
+     */
+    public int catchUp() {
+        long now = clock.now();
+        long restocks = restocksUpTo(now) - restocksUpTo(checkedAt);
+        checkedAt = now;
+        if (restocks <= 0) {
+            return 0;
+        }
+        int added = 0;
+        int slots = Math.min(par.length, stock.getSlotCount());
+        for (int slot = 0; slot < slots; slot++) {
+            int missing = par[slot] - stock.getQuantity(slot);
+            if (missing > 0) {
+                int amount = (int) Math.min(missing, restocks * perRestock[slot]);
+                stock.add(stock.getItem(slot), amount);
+                added += amount;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * @return ticks between restocks of this market
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return number of restock ticks in [0, tick]
+     */
+    private long restocksUpTo(long tick) {
+        return (tick + interval - phase) / interval;
+    }
+}
@@ -0,0 +1,389 @@
+package Game;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Monster groups that roam the board and fight the party on contact.
+ *
+ * Groups are stored as parallel primitive arrays (row, column, and the
+ * links of the spatial hash) rather than one object per group, so tens of
+ * thousands of them stay compact and cheap to iterate.
+ *
+ * A uniform grid hash of {@link #cellSize} x {@link #cellSize} tiles keeps,
+ * for every bucket, a doubly linked list of the groups inside it
+ * (threaded through {@link #next}/{@link #prev}), so finding the group on a
+ * tile or the groups near the party only visits nearby buckets, and moving
+ * a group between buckets is O(1).
+ *
+ * Each {@link #tick(int, int)} has a fixed budget: every group within
+ * {@link #activeRadius} of the party moves (chasing the party when close),
+ * and at most {@link #farUpdatesPerTick} of the remaining groups wander one
+ * step, taken round-robin, so distant groups move at a reduced rate.
+ */
+public class RoamingMonsters {
+
+    /**
+     * Returned by {@link #groupAt(int, int)} when no group is on the tile.
+     */
+    public static final int none = -1;
+
+    /**
+     * Width/height (in tiles) of one spatial hash bucket.
+     */
+    private static final int cellSize = 8;
+
+    /**
+     * Groups within this many tiles (in both directions) of the party
+     * update on every tick.
+     */
+    private static final int activeRadius = 12;
+
+    /**
+     * Groups within this many steps of the party walk towards it.
+     */
+    private static final int chaseRadius = 4;
+
+    /**
+     * Number of distant groups moved per tick.
+     */
+    private static final int farUpdatesPerTick = 4096;
+
+    /**
+     * Average number of accessible tiles per group when spawning.
+     */
+    private static final int tilesPerGroup = 40;
+
+    /**
+     * Row/column offsets for the four walkable directions.
+     */
+    private static final int[] rowSteps = {-1, 1, 0, 0};
+    private static final int[] colSteps = {0, 0, -1, 1};
+
+    /**
+     * Board the groups roam.
+     */
+    private final Board board;
+
+    /**
+     * Number of buckets along one side of the board.
+     */
+    private final int bucketsPerSide;
+
+    /**
+     * First group in each bucket, or {@link #none}.
+     */
+    private final int[] bucketHead;
+
+    /**
+     * Per-group state, indexed by group number in [0, count).
+     */
+    private int[] rows;
+    private int[] cols;
+    private int[] next;
+    private int[] prev;
+    private int count;
+
+    /**
+     * Next group to visit in the round-robin update of distant groups.
+     */
+    private int farCursor;
+
+    /**
+     * Scratch list of groups found near the party during a tick.
+     */
+    private int[] nearby = new int[64];
+
+    /**
+     * Drives wandering and spawning.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Time spent in the last {@link #tick(int, int)}, in nanoseconds.
+     */
+    private long lastTickNanos;
+
+    /**
+     * Create an empty set of groups for a board.
+     *
+     * @param board board to roam
+     * @param seed  seed for spawning and wandering
+     */
+    public RoamingMonsters(Board board, long seed) {
+        this.board = board;
+        this.random = new SplittableRandom(seed);
+        this.bucketsPerSide = (board.getSize() + cellSize - 1) / cellSize;
+        this.bucketHead = new int[bucketsPerSide * bucketsPerSide];
+        Arrays.fill(bucketHead, none);
+        this.rows = new int[16];
+        this.cols = new int[16];
+        this.next = new int[16];
+        this.prev = new int[16];
+    }
+
+    /**
+     * Scatter groups over common tiles of the board, about one per
+     * {@link #tilesPerGroup} tiles. Dangerous regions (see {@link Terrain})
+     * get proportionally more groups, and no group starts within
+     * {@link #chaseRadius} steps of (safeRow, safeCol).
+     *
+     * @param safeRow row to keep clear (e.g. the party start)
+     * @param safeCol column to keep clear
+     */
+    public void populate(int safeRow, int safeCol) {
+        int size = board.getSize();
+        int target = Math.max(1, size * size / tilesPerGroup);
+        int attempts = target * 20;
+        while (count < target && attempts-- > 0) {
+            int row = random.nextInt(size);
+            int col = random.nextInt(size);
+            if (!canEnter(row, col)
+                    || Math.abs(row - safeRow) + Math.abs(col - safeCol) <= chaseRadius) {
+                continue;
+            }
+            double weight = Terrain.encounterRate(board.getRegion(row, col)) / Terrain.maxEncounterRate();
+            if (random.nextDouble() < weight) {
+                add(row, col);
+            }
+        }
+    }
+
+    /**
+     * Add a group at (row, col).
+     *
+     * @return the new group's number
+     */
+    public int add(int row, int col) {
+        if (count == rows.length) {
+            int capacity = rows.length * 2;
+            rows = Arrays.copyOf(rows, capacity);
+            cols = Arrays.copyOf(cols, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+        int group = count++;
+        rows[group] = row;
+        cols[group] = col;
+        link(group);
+        return group;
+    }
+
+    /**
+     * Remove a group (e.g. after it was defeated). The last group takes
+     * over its number, so group numbers are only stable until the next
+     * removal.
+     *
+     * @param group group number in [0, {@link #size()})
+     */
+    public void remove(int group) {
+        unlink(group);
+        int last = --count;
+        if (group != last) {
+            unlink(last);
+            rows[group] = rows[last];
+            cols[group] = cols[last];
+            link(group);
+        }
+        if (farCursor >= count) {
+            farCursor = 0;
+        }
+    }
+
+    /**
+     * @return the number of a group standing on (row, col), or {@link #none}
+     */
+    public int groupAt(int row, int col) {
+        for (int g = bucketHead[bucketOf(row, col)]; g != none; g = next[g]) {
+            if (rows[g] == row && cols[g] == col) {
+                return g;
+            }
+        }
+        return none;
+    }
+
+    /**
+     * @return number of groups on the board
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return row of a group
+     */
+    public int getRow(int group) {
+        return rows[group];
+    }
+
+    /**
+     * @return column of a group
+     */
+    public int getCol(int group) {
+        return cols[group];
+    }
+
+    /**
+     * @return time spent in the last tick, in nanoseconds
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * Advance the world by one tick: move every group near the party,
+     * then a bounded slice of the distant ones.
+     *
+     * @param partyRow current party row
+     * @param partyCol current party column
+     */
+    public void tick(int partyRow, int partyCol) {
+        long start = System.nanoTime();
+
+        // Collect first: moving a group can relink it into a bucket that
+        // is still to be scanned.
+        int found = 0;
+        int minBucketRow = Math.max(0, (partyRow - activeRadius) / cellSize);
+        int maxBucketRow = Math.min(bucketsPerSide - 1, (partyRow + activeRadius) / cellSize);
+        int minBucketCol = Math.max(0, (partyCol - activeRadius) / cellSize);
+        int maxBucketCol = Math.min(bucketsPerSide - 1, (partyCol + activeRadius) / cellSize);
+        for (int br = minBucketRow; br <= maxBucketRow; br++) {
+            for (int bc = minBucketCol; bc <= maxBucketCol; bc++) {
+                for (int g = bucketHead[br * bucketsPerSide + bc]; g != none; g = next[g]) {
+                    if (isActive(g, partyRow, partyCol)) {
+                        if (found == nearby.length) {
+                            nearby = Arrays.copyOf(nearby, nearby.length * 2);
+                        }
+                        nearby[found++] = g;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < found; i++) {
+            int g = nearby[i];
+            int distance = Math.abs(rows[g] - partyRow) + Math.abs(cols[g] - partyCol);
+            if (distance <= chaseRadius) {
+                chase(g, partyRow, partyCol);
+            } else {
+                wander(g);
+            }
+        }
+
+        int budget = Math.min(farUpdatesPerTick, count);
+        for (int i = 0; i < budget; i++) {
+            if (farCursor >= count) {
+                farCursor = 0;
+            }
+            int g = farCursor++;
+            if (!isActive(g, partyRow, partyCol)) {
+                wander(g);
+            }
+        }
+
+        lastTickNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * @return true if the group is close enough to the party to update
+     *         on every tick
+     */
+    private boolean isActive(int group, int partyRow, int partyCol) {
+        return Math.abs(rows[group] - partyRow) <= activeRadius
+                && Math.abs(cols[group] - partyCol) <= activeRadius;
+    }
+
+    /**
+     * Step towards the party, trying the axis with the larger gap first;
+     * wander if both ways are blocked.
+     */
+    private void chase(int group, int partyRow, int partyCol) {
+        int dr = Integer.signum(partyRow - rows[group]);
+        int dc = Integer.signum(partyCol - cols[group]);
+        boolean rowFirst = Math.abs(partyRow - rows[group]) >= Math.abs(partyCol - cols[group]);
+        if (rowFirst ? tryStep(group, dr, 0) || tryStep(group, 0, dc)
+                     : tryStep(group, 0, dc) || tryStep(group, dr, 0)) {
+            return;
+        }
+        wander(group);
+    }
+
+    /**
+     * Take one random step, or stay put (one chance in five).
+     */
+    private void wander(int group) {
+        int d = random.nextInt(rowSteps.length + 1);
+        if (d < rowSteps.length) {
+            tryStep(group, rowSteps[d], colSteps[d]);
+        }
+    }
+
+    /**
+     * Move a group by (dr, dc) if that is a non-zero step onto a tile it
+     * may enter, updating its bucket if it changes.
+     *
+     * @return true if the group moved
+     */
+    private boolean tryStep(int group, int dr, int dc) {
+        if (dr == 0 && dc == 0) {
+            return false;
+        }
+        int row = rows[group] + dr;
+        int col = cols[group] + dc;
+        if (!canEnter(row, col)) {
+            return false;
+        }
+        boolean changesBucket = bucketOf(row, col) != bucketOf(rows[group], cols[group]);
+        if (changesBucket) {
+            unlink(group);
+        }
+        rows[group] = row;
+        cols[group] = col;
+        if (changesBucket) {
+            link(group);
+        }
+        return true;
+    }
+
+    /**
+     * Groups walk on common tiles only: never into obstacles or markets.
+     */
+    private boolean canEnter(int row, int col) {
+        if (!board.isInside(row, col)) {
+            return false;
+        }
+        Tile tile = board.getTile(row, col);
+        return tile.isAccessible() && !tile.isMarket();
+    }
+
+    private int bucketOf(int row, int col) {
+        return (row / cellSize) * bucketsPerSide + col / cellSize;
+    }
+
+    /**
+     * Push a group onto the front of its bucket's list.
+     */
+    private void link(int group) {
+        int bucket = bucketOf(rows[group], cols[group]);
+        int head = bucketHead[bucket];
+        next[group] = head;
+        prev[group] = none;
+        if (head != none) {
+            prev[head] = group;
+        }
+        bucketHead[bucket] = group;
+    }
+
+    /**
+     * Take a group out of its bucket's list.
+     */
+    private void unlink(int group) {
+        if (prev[group] != none) {
+            next[prev[group]] = next[group];
+        } else {
+            bucketHead[bucketOf(rows[group], cols[group])] = next[group];
+        }
+        if (next[group] != none) {
+            prev[next[group]] = prev[group];
+        }
+    }
+}
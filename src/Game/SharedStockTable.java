@@ -0,0 +1,60 @@
+package Game;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * {@link StockTable} for a market that several sessions trade in at once.
+ *
+ * Quantities live in an {@link AtomicIntegerArray}. Taking copies is a
+ * compare-and-set loop on the slot, so two buyers can never both take the
+ * last copy, and reads are plain volatile reads that never wait for a
+ * writer. There are no locks: a buyer that loses a race simply retries
+ * with the new quantity (or fails if the copies are gone).
+ *
+ * The table has a fixed capacity, so a shared stock must create all of
+ * its slots up front (see {@link MarketStock#shared}).
+ */
+public class SharedStockTable implements StockTable {
+
+    private final AtomicIntegerArray quantities;
+
+    /**
+     * @param capacity number of slots
+     */
+    public SharedStockTable(int capacity) {
+        this.quantities = new AtomicIntegerArray(capacity);
+    }
+
+    @Override
+    public int get(int slot) {
+        return quantities.get(slot);
+    }
+
+    @Override
+    public int add(int slot, int count) {
+        return quantities.addAndGet(slot, count);
+    }
+
+    @Override
+    public int take(int slot, int count) {
+        while (true) {
+            int current = quantities.get(slot);
+            if (current < count) {
+                return -1;
+            }
+            if (quantities.compareAndSet(slot, current, current - count)) {
+                return current - count;
+            }
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return quantities.length();
+    }
+
+    @Override
+    public StockTable copyOf(int capacity) {
+        throw new IllegalStateException("A shared stock table cannot grow");
+    }
+}
@@ -0,0 +1,228 @@
+package Game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse spatial index for points of interest on the board (markets, and
+ * anything else that lives on a tile).
+ *
+ * Positions are packed into a single long key (row in the high 32 bits,
+ * column in the low 32 bits). Values are kept in an insertion-ordered map
+ * for exact lookups, and their keys are also bucketed in a uniform grid
+ * hash of {@code cellSize x cellSize} tiles, which answers nearest-neighbour
+ * and range queries by only visiting nearby buckets.
+ *
+ * Memory grows with the number of stored points, not with the board area.
+ *
+ * @param <T> type of the value stored at each position
+ */
+public class SpatialIndex<T> {
+
+    /**
+     * Key returned by {@link #nearest(int, int)} when the index is empty.
+     */
+    public static final long none = -1L;
+
+    /**
+     * Width/height of one grid bucket, in tiles.
+     */
+    private final int cellSize;
+
+    /**
+     * Exact position -> value lookup.
+     */
+    private final Map<Long, T> values = new LinkedHashMap<>();
+
+    /**
+     * Grid bucket (packed bucket coordinates) -> keys stored in that bucket.
+     */
+    private final Map<Long, List<Long>> buckets = new HashMap<>();
+
+    /**
+     * Bounds (in bucket coordinates) of every bucket ever used;
+     * limits how far a nearest-neighbour search has to look.
+     */
+    private int minBucketRow = Integer.MAX_VALUE;
+    private int maxBucketRow = Integer.MIN_VALUE;
+    private int minBucketCol = Integer.MAX_VALUE;
+    private int maxBucketCol = Integer.MIN_VALUE;
+
+    /**
+     * Create an empty index.
+     *
+     * @param cellSize bucket width/height in tiles (must be positive)
+     */
+    public SpatialIndex(int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Pack a (row, col) pair into one key.
+     */
+    public static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return the row stored in a packed key
+     */
+    public static int rowOf(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * @return the column stored in a packed key
+     */
+    public static int colOf(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Store a value at (row, col), replacing any previous value there.
+     */
+    public void put(int row, int col, T value) {
+        long key = pack(row, col);
+        if (values.put(key, value) != null) {
+            return;
+        }
+        int bucketRow = Math.floorDiv(row, cellSize);
+        int bucketCol = Math.floorDiv(col, cellSize);
+        buckets.computeIfAbsent(pack(bucketRow, bucketCol), k -> new ArrayList<>()).add(key);
+        minBucketRow = Math.min(minBucketRow, bucketRow);
+        maxBucketRow = Math.max(maxBucketRow, bucketRow);
+        minBucketCol = Math.min(minBucketCol, bucketCol);
+        maxBucketCol = Math.max(maxBucketCol, bucketCol);
+    }
+
+    /**
+     * Remove the value at (row, col).
+     *
+     * @return the removed value, or null if there was none
+     */
+    public T remove(int row, int col) {
+        long key = pack(row, col);
+        T removed = values.remove(key);
+        if (removed != null) {
+            long bucketKey = pack(Math.floorDiv(row, cellSize), Math.floorDiv(col, cellSize));
+            List<Long> bucket = buckets.get(bucketKey);
+            bucket.remove(Long.valueOf(key));
+            if (bucket.isEmpty()) {
+                buckets.remove(bucketKey);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return the value at (row, col), or null if there is none
+     */
+    public T get(int row, int col) {
+        return values.get(pack(row, col));
+    }
+
+    /**
+     * @return true if a value is stored at (row, col)
+     */
+    public boolean contains(int row, int col) {
+        return values.containsKey(pack(row, col));
+    }
+
+    /**
+     * @return number of stored points
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * @return read-only view of all packed keys, in insertion order
+     */
+    public Set<Long> keys() {
+        return Collections.unmodifiableSet(values.keySet());
+    }
+
+    /**
+     * Find the stored point closest to (row, col) by Manhattan distance
+     * (ignoring obstacles). Buckets are visited in rings of growing
+     * distance around the query bucket, and the search stops as soon as
+     * no unvisited ring can contain a closer point.
+     *
+     * @return packed key of the nearest point, or {@link #none} if empty
+     */
+    public long nearest(int row, int col) {
+        if (values.isEmpty()) {
+            return none;
+        }
+        int bucketRow = Math.floorDiv(row, cellSize);
+        int bucketCol = Math.floorDiv(col, cellSize);
+        int maxRing = Math.max(
+                Math.max(Math.abs(bucketRow - minBucketRow), Math.abs(bucketRow - maxBucketRow)),
+                Math.max(Math.abs(bucketCol - minBucketCol), Math.abs(bucketCol - maxBucketCol)));
+
+        long best = none;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Every point in ring r is at least (r - 1) * cellSize + 1 away.
+            if (best != none && (ring - 1) * cellSize >= bestDistance) {
+                break;
+            }
+            for (int br = bucketRow - ring; br <= bucketRow + ring; br++) {
+                boolean edgeRow = (br == bucketRow - ring || br == bucketRow + ring);
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int bc = bucketCol - ring; bc <= bucketCol + ring; bc += Math.max(1, step)) {
+                    List<Long> bucket = buckets.get(pack(br, bc));
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (long key : bucket) {
+                        int distance = Math.abs(rowOf(key) - row) + Math.abs(colOf(key) - col);
+                        if (distance < bestDistance) {
+                            bestDistance = distance;
+                            best = key;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Collect every stored point inside the rectangle
+     * [minRow, maxRow] x [minCol, maxCol] (inclusive).
+     *
+     * @return packed keys of the points found
+     */
+    public List<Long> range(int minRow, int minCol, int maxRow, int maxCol) {
+        List<Long> result = new ArrayList<>();
+        int fromRow = Math.max(Math.floorDiv(minRow, cellSize), minBucketRow);
+        int toRow = Math.min(Math.floorDiv(maxRow, cellSize), maxBucketRow);
+        int fromCol = Math.max(Math.floorDiv(minCol, cellSize), minBucketCol);
+        int toCol = Math.min(Math.floorDiv(maxCol, cellSize), maxBucketCol);
+        for (int br = fromRow; br <= toRow; br++) {
+            for (int bc = fromCol; bc <= toCol; bc++) {
+                List<Long> bucket = buckets.get(pack(br, bc));
+                if (bucket == null) {
+                    continue;
+                }
+                for (long key : bucket) {
+                    int r = rowOf(key);
+                    int c = colOf(key);
+                    if (r >= minRow && r <= maxRow && c >= minCol && c <= maxCol) {
+                        result.add(key);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
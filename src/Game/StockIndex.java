@@ -0,0 +1,224 @@
+package Game;
+
+import Items.Armor;
+import Items.Item;
+import Items.Potion;
+import Items.Spell;
+import Items.Weapon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Presorted indexes over a {@link MarketStock} for questions like "which
+ * weapons can this hero equip and afford?".
+ *
+ * For every category and every level cap L the index keeps the slots of
+ * items with level <= L, sorted by base price, next to an array of those
+ * prices. A query picks the array for the hero's level, binary searches
+ * the price bound and walks the prefix below it: O(log n + k) for k
+ * candidates, however large the market. Sorting the k results by live
+ * price or power adds O(k log k).
+ *
+ * Item levels are small, so one array per level costs at most
+ * (highest item level) x (slots) ints. The index is rebuilt only when the
+ * stock has gained slots since the last query; quantity and price changes
+ * do not touch it.
+ */
+public class StockIndex {
+
+    /**
+     * Orders a query can return its results in.
+     */
+    public enum SortOrder {
+        STOCKED("as stocked"),
+        PRICE("by price"),
+        POWER("by power");
+
+        private final String displayName;
+
+        SortOrder(String displayName) {
+            this.displayName = displayName;
+        }
+
+        /**
+         * @return name shown in menus
+         */
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * @return the next order, for menus that cycle through them
+         */
+        public SortOrder next() {
+            return values()[(ordinal() + 1) % values().length];
+        }
+    }
+
+    /**
+     * Stock being indexed.
+     */
+    private final MarketStock stock;
+
+    /**
+     * Number of stock slots covered by the index, or -1 before the first build.
+     */
+    private int indexedSlots = -1;
+
+    /**
+     * Highest item level in the stock.
+     */
+    private int maxLevel;
+
+    /**
+     * {@code slotsByLevel[category][L]}: slots of that category with item
+     * level <= L, by ascending base price; {@code pricesByLevel} holds the
+     * matching base prices.
+     */
+    private int[][][] slotsByLevel;
+    private int[][][] pricesByLevel;
+
+    /**
+     * Create an index over a stock. Nothing is built until the first query.
+     *
+     * @param stock stock to index
+     */
+    public StockIndex(MarketStock stock) {
+        this.stock = stock;
+    }
+
+    /**
+     * Find the in-stock items of a category up to a level and a price.
+     *
+     * @param category category to search
+     * @param maxLevel highest item level to include (e.g. the hero's level)
+     * @param maxPrice highest price to include (e.g. the hero's gold)
+     * @param order    order of the results
+     * @param pricing  live prices to filter and sort by, or null to use
+     *                 base prices
+     * @return matching items with copies left
+     */
+    public List<Item> query(MarketStock.Category category, int maxLevel, int maxPrice,
+                            SortOrder order, PricingEngine pricing) {
+        ensureIndexed();
+        int level = Math.min(maxLevel, this.maxLevel);
+        if (level < 0) {
+            return new ArrayList<>();
+        }
+        int[] slots = slotsByLevel[category.ordinal()][level];
+        int[] prices = pricesByLevel[category.ordinal()][level];
+        int baseBound = pricing == null ? maxPrice : PricingEngine.maxBasePriceFor(maxPrice);
+        int end = upperBound(prices, baseBound);
+
+        List<Integer> found = new ArrayList<>();
+        for (int i = 0; i < end; i++) {
+            int slot = slots[i];
+            if (stock.getQuantity(slot) > 0 && (pricing == null || pricing.buyPrice(slot) <= maxPrice)) {
+                found.add(slot);
+            }
+        }
+
+        switch (order) {
+            case STOCKED:
+                found.sort(null);
+                break;
+            case PRICE:
+                if (pricing != null) {
+                    found.sort(Comparator.comparingInt(pricing::buyPrice));
+                }
+                break;
+            case POWER:
+                found.sort(Comparator.comparingInt((Integer slot) -> power(stock.getItem(slot))).reversed());
+                break;
+        }
+        List<Item> result = new ArrayList<>(found.size());
+        for (int slot : found) {
+            result.add(stock.getItem(slot));
+        }
+        return result;
+    }
+
+    /**
+     * The number a hero compares items of one category by: weapon or
+     * spell damage, armor damage reduction, or potion effect.
+     */
+    public static int power(Item item) {
+        if (item instanceof Weapon) {
+            return ((Weapon) item).getDamageValue();
+        } else if (item instanceof Armor) {
+            return ((Armor) item).getDamageReduction();
+        } else if (item instanceof Spell) {
+            return ((Spell) item).getDamage();
+        } else if (item instanceof Potion) {
+            return ((Potion) item).getEffectIncrease();
+        }
+        return 0;
+    }
+
+    /**
+     * Rebuild the per-level arrays if the stock gained slots.
+     */
+    private void ensureIndexed() {
+        int slotCount = stock.getSlotCount();
+        if (slotCount == indexedSlots) {
+            return;
+        }
+        Integer[] byPrice = new Integer[slotCount];
+        maxLevel = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            byPrice[slot] = slot;
+            maxLevel = Math.max(maxLevel, stock.getItem(slot).getLevel());
+        }
+        Arrays.sort(byPrice, Comparator.comparingInt((Integer slot) -> stock.getItem(slot).getPrice())
+                .thenComparingInt(slot -> slot));
+
+        int categories = MarketStock.Category.values().length;
+        slotsByLevel = new int[categories][maxLevel + 1][];
+        pricesByLevel = new int[categories][maxLevel + 1][];
+        int[] counts = new int[categories];
+        for (int level = 0; level <= maxLevel; level++) {
+            Arrays.fill(counts, 0);
+            for (int slot : byPrice) {
+                MarketStock.Category category = MarketStock.Category.of(stock.getItem(slot));
+                if (category != null && stock.getItem(slot).getLevel() <= level) {
+                    counts[category.ordinal()]++;
+                }
+            }
+            for (int c = 0; c < categories; c++) {
+                slotsByLevel[c][level] = new int[counts[c]];
+                pricesByLevel[c][level] = new int[counts[c]];
+            }
+            Arrays.fill(counts, 0);
+            for (int slot : byPrice) {
+                Item item = stock.getItem(slot);
+                MarketStock.Category category = MarketStock.Category.of(item);
+                if (category != null && item.getLevel() <= level) {
+                    int c = category.ordinal();
+                    slotsByLevel[c][level][counts[c]] = slot;
+                    pricesByLevel[c][level][counts[c]++] = item.getPrice();
+                }
+            }
+        }
+        indexedSlots = slotCount;
+    }
+
+    /**
+     * @return number of entries of the ascending array that are <= bound
+     */
+    private static int upperBound(int[] sorted, int bound) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,44 @@
+package Game;
+
+/**
+ * Quantities of a {@link MarketStock}, indexed by stock slot.
+ *
+ * Two implementations exist: {@link LocalStockTable} for a market used by
+ * a single session, and {@link SharedStockTable} for a market that
+ * several sessions trade in at once. Both never let a quantity go below
+ * zero: {@link #take(int, int)} either takes every requested copy or none.
+ */
+public interface StockTable {
+
+    /**
+     * @return copies left in a slot
+     */
+    int get(int slot);
+
+    /**
+     * Add copies to a slot.
+     *
+     * @return the quantity after adding
+     */
+    int add(int slot, int count);
+
+    /**
+     * Take copies from a slot, if enough are left.
+     *
+     * @return the quantity left after taking, or -1 if fewer than
+     *         {@code count} copies were available (nothing is taken then)
+     */
+    int take(int slot, int count);
+
+    /**
+     * @return number of slots the table can hold
+     */
+    int capacity();
+
+    /**
+     * @return a table with the same quantities and room for
+     *         {@code capacity} slots
+     * @throws IllegalStateException if the table cannot grow
+     */
+    StockTable copyOf(int capacity);
+}
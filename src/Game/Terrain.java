@@ -0,0 +1,267 @@
+package Game;
+
+import java.util.stream.IntStream;
+
+/**
+ * Biome and danger level of every tile, generated from the board seed with
+ * coherent value noise so neighbouring tiles form larger regions.
+ *
+ * Each tile's region is packed into one byte ({@code biome << 2 | danger}),
+ * stored row-major in a single array. Every region has a precomputed
+ * encounter entry (encounter rate and monster level band), so checking for
+ * a random battle is a single array lookup at the party's tile.
+ *
+ * Terrain only depends on (seed, row, col), so it does not need to be
+ * stored in board files: a loaded board regenerates the same terrain.
+ */
+public class Terrain {
+
+    /**
+     * Kinds of land a tile can belong to, with the base chance of
+     * a random battle when stepping onto a common tile of that kind.
+     */
+    public enum Biome {
+        PLAINS("Plains", 0.20),
+        FOREST("Forest", 0.30),
+        SWAMP("Swamp", 0.40),
+        MOUNTAINS("Mountains", 0.35);
+
+        private final String displayName;
+        private final double baseRate;
+
+        Biome(String displayName, double baseRate) {
+            this.displayName = displayName;
+            this.baseRate = baseRate;
+        }
+
+        /**
+         * @return name shown to the player
+         */
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * Number of danger levels (0 = safest).
+     */
+    public static final int dangerLevels = 4;
+
+    /**
+     * Number of distinct packed region values.
+     */
+    private static final int regionCount = 4 * dangerLevels;
+
+    /**
+     * Multiplier applied to the biome's base encounter rate, per danger level.
+     */
+    private static final double[] dangerRateFactor = {0.6, 1.0, 1.3, 1.6};
+
+    /**
+     * Monster level band relative to the party level, per danger level.
+     */
+    private static final int[] dangerMinLevelOffset = {-1, -1, 0, 1};
+    private static final int[] dangerMaxLevelOffset = {0, 1, 2, 3};
+
+    /**
+     * Precomputed encounter table, indexed by packed region value.
+     */
+    private static final double[] encounterRates = new double[regionCount];
+    private static final int[] minLevelOffsets = new int[regionCount];
+    private static final int[] maxLevelOffsets = new int[regionCount];
+
+    /**
+     * Highest entry of {@link #encounterRates}.
+     */
+    private static double maxEncounterRate;
+
+    static {
+        for (Biome biome : Biome.values()) {
+            for (int danger = 0; danger < dangerLevels; danger++) {
+                int region = pack(biome, danger);
+                encounterRates[region] = Math.min(0.9, biome.baseRate * dangerRateFactor[danger]);
+                minLevelOffsets[region] = dangerMinLevelOffset[danger];
+                maxLevelOffsets[region] = dangerMaxLevelOffset[danger];
+                maxEncounterRate = Math.max(maxEncounterRate, encounterRates[region]);
+            }
+        }
+    }
+
+    /**
+     * Lattice spacing (in tiles) of the noise fields: larger values give
+     * larger regions.
+     */
+    private static final int biomeScale = 6;
+    private static final int dangerScale = 4;
+
+    /**
+     * Salts that make the three noise fields independent of each other.
+     */
+    private static final long elevationSalt = 0x5EEDL;
+    private static final long moistureSalt = 0xD1CEL;
+    private static final long dangerSalt = 0xBADL;
+
+    /**
+     * The width/height of the terrain (same as the board).
+     */
+    private final int size;
+
+    /**
+     * Packed region value of every tile, row-major.
+     */
+    private final byte[] regions;
+
+    /**
+     * Generate the terrain for a board. Rows are independent, so they are
+     * generated in parallel; the result depends only on the seed.
+     *
+     * @param size width/height of the board
+     * @param seed board seed
+     */
+    public Terrain(int size, long seed) {
+        this.size = size;
+        this.regions = new byte[size * size];
+        IntStream.range(0, size).parallel().forEach(r -> {
+            int offset = r * size;
+            for (int c = 0; c < size; c++) {
+                regions[offset + c] = (byte) generateRegion(seed, r, c);
+            }
+        });
+    }
+
+    /**
+     * @return packed region value of the tile at (row, col)
+     */
+    public int getRegion(int row, int col) {
+        return regions[row * size + col];
+    }
+
+    /**
+     * @return the biome stored in a packed region value
+     */
+    public static Biome biomeOf(int region) {
+        return Biome.values()[region >> 2];
+    }
+
+    /**
+     * @return the danger level (0 to {@link #dangerLevels} - 1) stored in a
+     *         packed region value
+     */
+    public static int dangerOf(int region) {
+        return region & 3;
+    }
+
+    /**
+     * @return chance of a random battle per step on a common tile of this region
+     */
+    public static double encounterRate(int region) {
+        return encounterRates[region];
+    }
+
+    /**
+     * @return the highest encounter rate of any region
+     */
+    public static double maxEncounterRate() {
+        return maxEncounterRate;
+    }
+
+    /**
+     * @return lowest monster level, relative to the party level, in this region
+     */
+    public static int minLevelOffset(int region) {
+        return minLevelOffsets[region];
+    }
+
+    /**
+     * @return highest monster level, relative to the party level, in this region
+     */
+    public static int maxLevelOffset(int region) {
+        return maxLevelOffsets[region];
+    }
+
+    /**
+     * @return short description such as "Forest (danger 2)"
+     */
+    public static String describe(int region) {
+        return biomeOf(region).getDisplayName() + " (danger " + dangerOf(region) + ")";
+    }
+
+    /**
+     * Pack a biome and danger level into one region value.
+     */
+    private static int pack(Biome biome, int danger) {
+        return (biome.ordinal() << 2) | danger;
+    }
+
+    /**
+     * Classify one tile from the elevation, moisture and danger noise fields.
+     */
+    private static int generateRegion(long seed, int row, int col) {
+        double elevation = noise(seed ^ elevationSalt, row, col, biomeScale);
+        double moisture = noise(seed ^ moistureSalt, row, col, biomeScale);
+        Biome biome;
+        if (elevation > 0.62) {
+            biome = Biome.MOUNTAINS;
+        } else if (moisture > 0.60) {
+            biome = Biome.SWAMP;
+        } else if (moisture > 0.45) {
+            biome = Biome.FOREST;
+        } else {
+            biome = Biome.PLAINS;
+        }
+
+        // Noise clusters around 0.5, so stretch it before quantizing to
+        // give every danger level a fair share of the map.
+        double d = noise(seed ^ dangerSalt, row, col, dangerScale);
+        int danger = (int) ((d - 0.2) / 0.6 * dangerLevels);
+        danger = Math.max(0, Math.min(dangerLevels - 1, danger));
+        return pack(biome, danger);
+    }
+
+    /**
+     * Two-octave value noise in [0, 1): random values on a lattice with
+     * spacing {@code scale}, smoothly interpolated in between, plus a
+     * weaker octave at half the spacing for detail.
+     */
+    private static double noise(long seed, int row, int col, int scale) {
+        return 0.7 * valueNoise(seed, row, col, scale)
+                + 0.3 * valueNoise(seed + 1, row, col, Math.max(1, scale / 2));
+    }
+
+    /**
+     * One octave of value noise at (row, col).
+     */
+    private static double valueNoise(long seed, int row, int col, int scale) {
+        int cellRow = Math.floorDiv(row, scale);
+        int cellCol = Math.floorDiv(col, scale);
+        double fr = smooth((row - cellRow * scale) / (double) scale);
+        double fc = smooth((col - cellCol * scale) / (double) scale);
+
+        double top = lerp(lattice(seed, cellRow, cellCol), lattice(seed, cellRow, cellCol + 1), fc);
+        double bottom = lerp(lattice(seed, cellRow + 1, cellCol), lattice(seed, cellRow + 1, cellCol + 1), fc);
+        return lerp(top, bottom, fr);
+    }
+
+    /**
+     * Random value in [0, 1) attached to a lattice point
+     * (SplitMix64 finalizer over the seed and coordinates).
+     */
+    private static double lattice(long seed, int row, int col) {
+        long z = seed + SpatialIndex.pack(row, col) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Smoothstep easing, so the noise has no visible lattice creases.
+     */
+    private static double smooth(double t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+}
@@ -13,6 +13,10 @@ package Game;
  *  - {@link CommonTile}
  *  - {@link InaccessibleTile}
  *  - {@link MarketTile}
+ *
+ * Tiles carry no per-position state, so each subclass has exactly one
+ * shared instance (a flyweight, e.g. {@link CommonTile#instance}) and a
+ * board stores references to those instead of one object per cell.
  */
 public abstract class Tile {
 
@@ -36,6 +40,16 @@ public abstract class Tile {
      */
     public static final String colorYellow = "\u001B[33m";
 
+    /**
+     * Magenta foreground color (used for roaming monster groups).
+     */
+    public static final String colorMagenta = "\u001B[35m";
+
+    /**
+     * Cyan foreground color (used for other parties on the board).
+     */
+    public static final String colorCyan = "\u001B[36m";
+
     /**
      * @return true if the party can stand on this tile, false if it is blocked.
      */
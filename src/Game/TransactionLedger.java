@@ -0,0 +1,281 @@
+package Game;
+
+import Utility.IntIntHashMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only, memory-mapped record of every market trade, for auditing
+ * the economy.
+ *
+ * Layout (all numbers big-endian):
+ *  - a {@link #headerBytes}-byte header: int magic ("MHL1"), int record
+ *    size, long number of committed records, long number of runs
+ *  - fixed-size {@link #recordBytes}-byte records: long tick, int hero id,
+ *    int item id, int quantity (positive for purchases, negative for
+ *    sales), int price per copy, int market id, int run
+ *
+ * The file is mapped in segments of {@link #segmentBytes} bytes, added as
+ * it grows, so appending is a handful of absolute puts into a mapped
+ * buffer with no system call and no heap buffer. A record becomes part of
+ * the ledger when the header count is bumped after it is written, so a
+ * game that dies mid-append never leaves a torn record visible.
+ *
+ * Aggregations stream over the mapped segments with absolute reads: the
+ * records are never copied into the heap, so they run over millions of
+ * records in constant memory (apart from the per-key totals).
+ *
+ * Every {@link #open(Path)} starts a new run, numbered from 1, and tags
+ * the records appended through it with that number. Hero ids, market ids
+ * and ticks are only meaningful within one run of the game, so the
+ * per-hero aggregation looks at a single run; catalog ids are the same in
+ * every run, so the per-item one covers the whole file.
+ */
+public class TransactionLedger implements Closeable {
+
+    /**
+     * File signature: the ASCII bytes "MHL1".
+     */
+    private static final int magic = 0x4D484C31;
+
+    private static final int headerBytes = 64;
+    private static final int recordBytes = 32;
+
+    /**
+     * Size of one mapped segment; a multiple of the record size, as is the
+     * header, so no record is split across two segments.
+     */
+    private static final int segmentBytes = 1 << 24;
+
+    /**
+     * Callback for {@link #scan(Visitor)}.
+     */
+    public interface Visitor {
+        /**
+         * Called once per record, in append order.
+         */
+        void visit(int run, long tick, int heroId, int itemId, int quantity, int price, int marketId);
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    /**
+     * Number of committed records. Written only while holding the lock,
+     * volatile so scans can read it without the lock.
+     */
+    private volatile long count;
+
+    /**
+     * Run the records appended through this instance belong to.
+     */
+    private int run;
+
+    private TransactionLedger(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerBytes);
+    }
+
+    /**
+     * Open a ledger file, creating it if it does not exist, and start a new
+     * run in it.
+     *
+     * @param file ledger path
+     * @return the open ledger; close it when done
+     * @throws IOException if the file cannot be opened or is not a ledger
+     */
+    public static TransactionLedger open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean fresh = channel.size() == 0;
+            if (!fresh && channel.size() < headerBytes) {
+                throw new IOException("Not a ledger file: " + file);
+            }
+            TransactionLedger ledger = new TransactionLedger(channel);
+            if (fresh) {
+                ledger.header.putInt(0, magic);
+                ledger.header.putInt(4, recordBytes);
+                ledger.header.putLong(8, 0L);
+                ledger.header.putLong(16, 0L);
+            } else if (ledger.header.getInt(0) != magic || ledger.header.getInt(4) != recordBytes) {
+                throw new IOException("Not a ledger file: " + file);
+            }
+            ledger.count = ledger.header.getLong(8);
+            if (ledger.count < 0 || offsetOf(ledger.count) > channel.size()) {
+                throw new IOException("Corrupt ledger header: " + file);
+            }
+            long runs = ledger.header.getLong(16);
+            if (runs < 0 || runs >= Integer.MAX_VALUE) {
+                throw new IOException("Corrupt ledger header: " + file);
+            }
+            ledger.run = (int) runs + 1;
+            ledger.header.putLong(16, ledger.run);
+            ledger.mapThrough(ledger.count);
+            return ledger;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append one trade.
+     *
+     * @param tick     game time of the trade
+     * @param heroId   hero who traded
+     * @param itemId   catalog id of the item
+     * @param quantity copies bought (positive) or sold (negative)
+     * @param price    price per copy
+     * @param marketId market where it happened
+     * @throws IOException if the file cannot grow
+     */
+    public synchronized void append(long tick, int heroId, int itemId, int quantity, int price,
+                                    int marketId) throws IOException {
+        long index = count;
+        mapThrough(index + 1);
+        long offset = offsetOf(index);
+        MappedByteBuffer segment = segments.get((int) (offset / segmentBytes));
+        int at = (int) (offset % segmentBytes);
+        segment.putLong(at, tick);
+        segment.putInt(at + 8, heroId);
+        segment.putInt(at + 12, itemId);
+        segment.putInt(at + 16, quantity);
+        segment.putInt(at + 20, price);
+        segment.putInt(at + 24, marketId);
+        segment.putInt(at + 28, run);
+        header.putLong(8, index + 1);
+        count = index + 1;
+    }
+
+    /**
+     * @return number of the run this instance appends to
+     */
+    public int getRun() {
+        return run;
+    }
+
+    /**
+     * @return number of records in the ledger
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Visit every record committed when the scan starts. Safe to run while
+     * other threads append.
+     */
+    public void scan(Visitor visitor) {
+        long end = offsetOf(count);
+        long offset = headerBytes;
+        while (offset < end) {
+            MappedByteBuffer segment = segment(offset);
+            long segmentStart = offset - offset % segmentBytes;
+            int stop = (int) Math.min(segmentBytes, end - segmentStart);
+            for (int at = (int) (offset - segmentStart); at < stop; at += recordBytes) {
+                visitor.visit(segment.getInt(at + 28), segment.getLong(at), segment.getInt(at + 8),
+                        segment.getInt(at + 12), segment.getInt(at + 16), segment.getInt(at + 20),
+                        segment.getInt(at + 24));
+            }
+            offset = segmentStart + stop;
+        }
+    }
+
+    /**
+     * Copies traded of every item, bought and sold together, over all runs.
+     *
+     * @param catalogSize number of catalog ids
+     * @return traded copies, indexed by catalog id
+     */
+    public long[] volumeByItem(int catalogSize) {
+        long[] volume = new long[catalogSize];
+        scan((run, tick, heroId, itemId, quantity, price, marketId) -> {
+            if (itemId >= 0 && itemId < catalogSize) {
+                volume[itemId] += Math.abs(quantity);
+            }
+        });
+        return volume;
+    }
+
+    /**
+     * Net gold flow of every hero in one run: gold received from sales
+     * minus gold spent on purchases.
+     *
+     * @param run run to total (see {@link #getRun()})
+     * @return rows of {hero id, net gold}, by ascending hero id
+     */
+    public long[][] goldFlowByHero(int run) {
+        IntIntHashMap rows = new IntIntHashMap();
+        long[][] totals = {new long[16], new long[16]};
+        int[] used = new int[1];
+        scan((recordRun, tick, heroId, itemId, quantity, price, marketId) -> {
+            if (recordRun != run) {
+                return;
+            }
+            int row = rows.get(heroId, -1);
+            if (row < 0) {
+                row = used[0]++;
+                rows.put(heroId, row);
+                if (row == totals[0].length) {
+                    totals[0] = Arrays.copyOf(totals[0], row * 2);
+                    totals[1] = Arrays.copyOf(totals[1], row * 2);
+                }
+                totals[0][row] = heroId;
+            }
+            totals[1][row] -= (long) quantity * price;
+        });
+        long[][] result = new long[used[0]][];
+        for (int i = 0; i < used[0]; i++) {
+            result[i] = new long[] {totals[0][i], totals[1][i]};
+        }
+        Arrays.sort(result, (a, b) -> Long.compare(a[0], b[0]));
+        return result;
+    }
+
+    /**
+     * Flush the mapped data to disk and close the file.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        header.force();
+        channel.close();
+    }
+
+    private static long offsetOf(long index) {
+        return headerBytes + index * recordBytes;
+    }
+
+    private MappedByteBuffer segment(long offset) {
+        synchronized (segments) {
+            return segments.get((int) (offset / segmentBytes));
+        }
+    }
+
+    /**
+     * Map segments until the first {@code records} records are covered.
+     */
+    private void mapThrough(long records) throws IOException {
+        long needed = offsetOf(records);
+        synchronized (segments) {
+            while ((long) segments.size() * segmentBytes < needed) {
+                long start = (long) segments.size() * segmentBytes;
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, start, segmentBytes));
+            }
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package Game;
+
+import Entities.Hero;
+import Items.Armor;
+import Items.Item;
+import Items.Weapon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Suggests the best upgrade a hero can afford in one market: the weapon
+ * purchase that raises total weapon damage the most, and the armor with
+ * the highest damage reduction.
+ *
+ * Weapon options follow {@link Hero#equipWeapon(Weapon)}: a two-handed
+ * weapon replaces both hands; a one-handed weapon goes into a free hand
+ * or replaces the main hand, keeping whatever stays equipped; and two
+ * one-handed weapons can be bought together to dual wield, unless both
+ * hands already hold one-handed weapons (the second purchase would then
+ * replace the first).
+ *
+ * Each option is answered from a precomputed Pareto frontier: for every
+ * level cap L, the candidates with level <= L sorted by live price,
+ * keeping only those stronger than every cheaper one. The best candidate
+ * within a budget is then the last frontier entry at or below it, found
+ * by binary search.
+ *
+ * The candidates themselves (including every pair of one-handed weapons)
+ * are enumerated only when the stock's weapons or armor change (see
+ * {@link MarketStock#getVersion(MarketStock.Category)}). When the quotes
+ * may have moved (see {@link PricingEngine#getVersion()}: once per tick
+ * plus once per trade), the cached candidates are only re-priced and
+ * sorted, and every level's frontier is rebuilt in one pass over them,
+ * into arrays that are reused. Every entry is therefore priced exactly as
+ * the hero would pay, and a recommendation is the strongest upgrade the
+ * hero can afford right now, the cheapest of those on ties.
+ */
+public class UpgradeAdvisor {
+
+    /**
+     * A suggested purchase.
+     */
+    public static final class Recommendation {
+        private final List<Item> items;
+        private final int cost;
+        private final int currentValue;
+        private final int newValue;
+
+        Recommendation(List<Item> items, int cost, int currentValue, int newValue) {
+            this.items = Collections.unmodifiableList(items);
+            this.cost = cost;
+            this.currentValue = currentValue;
+            this.newValue = newValue;
+        }
+
+        /**
+         * @return items to buy (one, or two to dual wield)
+         */
+        public List<Item> getItems() {
+            return items;
+        }
+
+        /**
+         * @return total live price of the items
+         */
+        public int getCost() {
+            return cost;
+        }
+
+        /**
+         * @return weapon damage or armor reduction now
+         */
+        public int getCurrentValue() {
+            return currentValue;
+        }
+
+        /**
+         * @return weapon damage or armor reduction after the purchase
+         */
+        public int getNewValue() {
+            return newValue;
+        }
+    }
+
+    /**
+     * Candidates of one option, and their best-stat-per-price staircase
+     * for every level cap. Payloads are a slot, or two slots packed by
+     * {@link #packPair}.
+     */
+    private static final class Frontier {
+        private int count;
+        private int[] levels = new int[8];
+        private int[] candidateStats = new int[8];
+        private int[] candidatePayloads = new int[8];
+
+        /**
+         * Candidates ordered by live price: price in the high 32 bits,
+         * candidate index in the low ones.
+         */
+        private long[] order;
+
+        /**
+         * Staircase of each level cap; the first {@code sizes[level]}
+         * entries of each row are in use.
+         */
+        private int[][] prices;
+        private int[][] stats;
+        private int[][] payloads;
+        private int[] sizes;
+
+        /**
+         * Add a candidate; only before {@link #reprice}.
+         */
+        void add(int level, int stat, int payload) {
+            if (count == levels.length) {
+                levels = Arrays.copyOf(levels, count * 2);
+                candidateStats = Arrays.copyOf(candidateStats, count * 2);
+                candidatePayloads = Arrays.copyOf(candidatePayloads, count * 2);
+            }
+            levels[count] = level;
+            candidateStats[count] = stat;
+            candidatePayloads[count++] = payload;
+        }
+
+        /**
+         * Price every candidate at the current quotes and rebuild the
+         * staircases. Each candidate, taken cheapest first, is appended to
+         * the staircases of the caps from its level up to the first cap
+         * that already has an entry at least as strong (the best stat of a
+         * staircase grows with the cap, so those caps are a contiguous
+         * range). Pairs of one slot are skipped while fewer than two
+         * copies are left.
+         */
+        void reprice(MarketStock stock, PricingEngine pricing) {
+            if (order == null) {
+                int maxLevel = 0;
+                for (int i = 0; i < count; i++) {
+                    maxLevel = Math.max(maxLevel, levels[i]);
+                }
+                order = new long[count];
+                prices = new int[maxLevel + 1][count];
+                stats = new int[maxLevel + 1][count];
+                payloads = new int[maxLevel + 1][count];
+                sizes = new int[maxLevel + 1];
+            }
+            int priced = 0;
+            for (int i = 0; i < count; i++) {
+                int payload = candidatePayloads[i];
+                long price;
+                if (payload >= 0) {
+                    price = pricing.buyPrice(payload);
+                } else if (firstOf(payload) != secondOf(payload) || stock.getQuantity(firstOf(payload)) >= 2) {
+                    price = (long) pricing.buyPrice(firstOf(payload)) + pricing.buyPrice(secondOf(payload));
+                } else {
+                    continue;
+                }
+                order[priced++] = (price << 32) | i;
+            }
+            Arrays.sort(order, 0, priced);
+
+            Arrays.fill(sizes, 0);
+            for (int k = 0; k < priced; k++) {
+                int i = (int) order[k];
+                int price = (int) Math.min(Integer.MAX_VALUE, order[k] >>> 32);
+                int stat = candidateStats[i];
+                for (int level = levels[i]; level < sizes.length; level++) {
+                    int size = sizes[level];
+                    if (size > 0 && stats[level][size - 1] >= stat) {
+                        break;
+                    }
+                    prices[level][size] = price;
+                    stats[level][size] = stat;
+                    payloads[level][size] = candidatePayloads[i];
+                    sizes[level] = size + 1;
+                }
+            }
+        }
+
+        /**
+         * @return the level cap to look up for a hero level (caps above the
+         *         highest candidate level are all the same)
+         */
+        int cap(int level) {
+            return Math.min(level, sizes.length - 1);
+        }
+
+        /**
+         * @return index of the strongest entry for a level cap priced
+         *         <= budget, or -1 if there is none
+         */
+        int best(int level, int budget) {
+            int[] p = prices[level];
+            int low = 0;
+            int high = sizes[level];
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (p[mid] <= budget) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - 1;
+        }
+    }
+
+    /**
+     * Highest slot that fits in a packed pair; weapons in later slots are
+     * only offered on their own.
+     */
+    private static final int maxPairSlot = 0x7FFF;
+
+    private final MarketStock stock;
+    private final PricingEngine pricing;
+
+    /**
+     * Frontiers, the stock versions their candidates were listed at, and
+     * the price versions they were last priced at.
+     */
+    private Frontier oneHanded;
+    private Frontier twoHanded;
+    private Frontier pairs;
+    private Frontier armor;
+    private int weaponVersion = -1;
+    private int armorVersion = -1;
+    private long weaponPrices = -1L;
+    private long armorPrices = -1L;
+
+    /**
+     * @param stock   stock to recommend from
+     * @param pricing live prices of that stock
+     */
+    public UpgradeAdvisor(MarketStock stock, PricingEngine pricing) {
+        this.stock = stock;
+        this.pricing = pricing;
+    }
+
+    /**
+     * @return the affordable weapon purchase that raises the hero's total
+     *         weapon damage the most (cheapest on ties), or null if none does
+     */
+    public Recommendation recommendWeapons(Hero hero) {
+        ensureWeaponFrontiers();
+        Weapon main = hero.getEquippedWeapon();
+        Weapon off = hero.getOffHandWeapon();
+        int current = hero.getEquippedWeaponDamage();
+        boolean mainOneHanded = main != null && main.getHandsRequired() == 1;
+        // Damage that stays equipped when one one-handed weapon is added.
+        int kept = !mainOneHanded ? 0 : off == null ? main.getDamageValue() : off.getDamageValue();
+
+        Recommendation best = null;
+        best = better(best, pick(twoHanded, hero, 0, current));
+        best = better(best, pick(oneHanded, hero, kept, current));
+        if (!(mainOneHanded && off != null)) {
+            best = better(best, pick(pairs, hero, 0, current));
+        }
+        return best;
+    }
+
+    /**
+     * @return the affordable armor with the highest damage reduction
+     *         above the hero's current armor, or null if there is none
+     */
+    public Recommendation recommendArmor(Hero hero) {
+        ensureArmorFrontier();
+        int current = hero.getEquippedArmorReduction();
+        return pick(armor, hero, 0, current);
+    }
+
+    /**
+     * Find the strongest frontier entry the hero can use and pay for.
+     *
+     * @param bonus   stat added to the entry's own (e.g. a kept weapon)
+     * @param current the hero's current stat; only improvements count
+     */
+    private Recommendation pick(Frontier frontier, Hero hero, int bonus, int current) {
+        int level = frontier.cap(hero.getLevel());
+        if (level < 0) {
+            return null;
+        }
+        int i = frontier.best(level, hero.getGold());
+        if (i < 0 || frontier.stats[level][i] + bonus <= current) {
+            return null;
+        }
+        int payload = frontier.payloads[level][i];
+        List<Item> items = new ArrayList<>(2);
+        if (payload < 0) {
+            items.add(stock.getItem(firstOf(payload)));
+            items.add(stock.getItem(secondOf(payload)));
+        } else {
+            items.add(stock.getItem(payload));
+        }
+        return new Recommendation(items, frontier.prices[level][i], current, frontier.stats[level][i] + bonus);
+    }
+
+    private static Recommendation better(Recommendation a, Recommendation b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (b.getNewValue() != a.getNewValue()) {
+            return b.getNewValue() > a.getNewValue() ? b : a;
+        }
+        return b.getCost() < a.getCost() ? b : a;
+    }
+
+    private void ensureWeaponFrontiers() {
+        int version = stock.getVersion(MarketStock.Category.WEAPONS);
+        long prices = pricing.getVersion();
+        if (version != weaponVersion) {
+            List<Integer> one = new ArrayList<>();
+            oneHanded = new Frontier();
+            twoHanded = new Frontier();
+            pairs = new Frontier();
+            for (int slot : inStock(MarketStock.Category.WEAPONS)) {
+                Weapon w = (Weapon) stock.getItem(slot);
+                if (w.getHandsRequired() == 2) {
+                    twoHanded.add(w.getLevel(), w.getDamageValue(), slot);
+                } else {
+                    oneHanded.add(w.getLevel(), w.getDamageValue(), slot);
+                    if (slot <= maxPairSlot) {
+                        one.add(slot);
+                    }
+                }
+            }
+            for (int i = 0; i < one.size(); i++) {
+                Weapon a = (Weapon) stock.getItem(one.get(i));
+                for (int j = i; j < one.size(); j++) {
+                    Weapon b = (Weapon) stock.getItem(one.get(j));
+                    pairs.add(Math.max(a.getLevel(), b.getLevel()), a.getDamageValue() + b.getDamageValue(),
+                            packPair(one.get(i), one.get(j)));
+                }
+            }
+            weaponVersion = version;
+            weaponPrices = -1L;
+        }
+        if (prices != weaponPrices) {
+            oneHanded.reprice(stock, pricing);
+            twoHanded.reprice(stock, pricing);
+            pairs.reprice(stock, pricing);
+            weaponPrices = prices;
+        }
+    }
+
+    private void ensureArmorFrontier() {
+        int version = stock.getVersion(MarketStock.Category.ARMOR);
+        long prices = pricing.getVersion();
+        if (version != armorVersion) {
+            armor = new Frontier();
+            for (int slot : inStock(MarketStock.Category.ARMOR)) {
+                Armor a = (Armor) stock.getItem(slot);
+                armor.add(a.getLevel(), a.getDamageReduction(), slot);
+            }
+            armorVersion = version;
+            armorPrices = -1L;
+        }
+        if (prices != armorPrices) {
+            armor.reprice(stock, pricing);
+            armorPrices = prices;
+        }
+    }
+
+    private List<Integer> inStock(MarketStock.Category category) {
+        List<Integer> slots = new ArrayList<>();
+        for (Item item : stock.inStock(category)) {
+            slots.add(stock.slotOf(item));
+        }
+        return slots;
+    }
+
+    /**
+     * Pack two slots into one negative payload (singles are >= 0).
+     */
+    private static int packPair(int first, int second) {
+        return Integer.MIN_VALUE | (first << 15) | second;
+    }
+
+    private static int firstOf(int payload) {
+        return (payload >>> 15) & 0x7FFF;
+    }
+
+    private static int secondOf(int payload) {
+        return payload & 0x7FFF;
+    }
+}
@@ -1,6 +1,10 @@
 package Items;
 
+import Utility.IntIntHashMap;
+
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -8,25 +12,175 @@ import java.util.List;
  * Holds all items owned by a hero (or potentially a party).
  *
  * Responsibilities:
- *  - store a list of {@link Item} objects
- *  - provide type-specific views (Weapons, Armor, Spells, Potions)
+ *  - store {@link Item}s as stacks: one entry per distinct item plus a
+ *    copy count, so memory follows the number of distinct items and
+ *    adding or removing copies is O(1)
+ *  - keep the stacks in one bucket per item type (Weapons, Armor,
+ *    Potions, Spells, anything else), so the typed views are read-only
+ *    wrappers over the buckets, made once, and cost nothing to get
+ *  - count copies of each item
+ *  - hand out O(1) {@link InventorySnapshot}s of its contents, and go
+ *    back to one
  *  - enforce encapsulation by returning unmodifiable lists externally
+ *
+ * Each bucket finds a stack by catalog id through a primitive map. Items
+ * without a catalog id are stacked by identity and found by a scan of
+ * their bucket. Removing the last copy moves the bucket's last stack
+ * into the freed place, so the order of a view changes when a stack
+ * runs out.
  */
 public class Inventory {
 
     /**
-     * Backing list of all items in this inventory (any subclass of Item).
+     * Callback for {@link #forEachStack(StackVisitor)}.
+     */
+    public interface StackVisitor {
+        /**
+         * Called once per stack.
+         *
+         * @param item  the stacked item
+         * @param count copies in the stack (at least 1)
+         */
+        void visit(Item item, int count);
+    }
+
+    /**
+     * Stacks of one item type: the items in a list, their copy counts in
+     * a parallel array, and the position of each catalog item's stack.
      */
-    private final List<Item> items = new ArrayList<>();
+    private static final class Bucket<T extends Item> {
+        final Class<T> type;
+        final List<T> stacks = new ArrayList<>();
+        final List<T> view = Collections.unmodifiableList(stacks);
+        final IntIntHashMap positions = new IntIntHashMap();
+        int[] counts = new int[4];
+
+        Bucket(Class<T> type) {
+            this.type = type;
+        }
+
+        /**
+         * @return position of an item's stack, or -1 if there is none
+         */
+        int find(Item item) {
+            if (item.getId() != Item.noId) {
+                return positions.get(item.getId(), -1);
+            }
+            for (int i = 0; i < stacks.size(); i++) {
+                if (stacks.get(i) == item) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Start a new stack.
+         */
+        void push(Item item, int count) {
+            int position = stacks.size();
+            if (position == counts.length) {
+                counts = Arrays.copyOf(counts, position * 2);
+            }
+            stacks.add(type.cast(item));
+            counts[position] = count;
+            if (item.getId() != Item.noId) {
+                positions.put(item.getId(), position);
+            }
+        }
+
+        /**
+         * Drop the stack at a position, moving the last stack into it.
+         */
+        void removeAt(int position) {
+            Item removed = stacks.get(position);
+            int last = stacks.size() - 1;
+            if (position != last) {
+                T moved = stacks.get(last);
+                stacks.set(position, moved);
+                counts[position] = counts[last];
+                if (moved.getId() != Item.noId) {
+                    positions.put(moved.getId(), position);
+                }
+            }
+            stacks.remove(last);
+            if (removed.getId() != Item.noId) {
+                positions.remove(removed.getId());
+            }
+        }
+
+        void clear() {
+            stacks.clear();
+            positions.clear();
+        }
+    }
+
+    private final Bucket<Weapon> weapons = new Bucket<>(Weapon.class);
+    private final Bucket<Armor> armors = new Bucket<>(Armor.class);
+    private final Bucket<Potion> potions = new Bucket<>(Potion.class);
+    private final Bucket<Spell> spells = new Bucket<>(Spell.class);
+    private final Bucket<Item> others = new Bucket<>(Item.class);
 
     /**
-     * Add a new item to the inventory.
+     * Buckets in the order {@link #getItems()} lists them.
+     */
+    private final List<Bucket<?>> buckets = Arrays.asList(weapons, armors, potions, spells, others);
+
+    /**
+     * Every stack, in bucket order; rebuilt lazily after a stack is
+     * started or runs out.
+     */
+    private final List<Item> allStacks = new ArrayList<>();
+    private boolean allStacksStale;
+
+    /**
+     * Live read-only view of {@link #allStacks}.
+     */
+    private final List<Item> allView = new AbstractList<Item>() {
+        @Override
+        public Item get(int index) {
+            return refreshAllStacks().get(index);
+        }
+
+        @Override
+        public int size() {
+            return refreshAllStacks().size();
+        }
+    };
+
+    /**
+     * The contents as a persistent snapshot, updated on every change.
+     */
+    private InventorySnapshot snapshot = InventorySnapshot.empty();
+
+    /**
+     * Add one copy of an item to the inventory.
      *
      * @param item item to add; ignored if null
      */
     public void addItem(Item item) {
-        if (item != null) {
-            items.add(item);
+        addItems(item, 1);
+    }
+
+    /**
+     * Add copies of an item to the inventory, onto its stack.
+     *
+     * @param item  item to add; ignored if null
+     * @param count number of copies (ignored if not positive)
+     */
+    public void addItems(Item item, int count) {
+        if (item == null || count <= 0) {
+            return;
+        }
+        Bucket<?> bucket = bucketOf(item);
+        int position = bucket.find(item);
+        if (position >= 0) {
+            bucket.counts[position] += count;
+            snapshot = snapshot.withCount(item, bucket.counts[position]);
+        } else {
+            bucket.push(item, count);
+            allStacksStale = true;
+            snapshot = snapshot.withCount(item, count);
         }
     }
 
@@ -38,69 +192,124 @@ public class Inventory {
      *         false otherwise
      */
     public boolean removeItem(Item item) {
-        return items.remove(item);
+        return removeItems(item, 1);
     }
 
     /**
-     * Get a read-only view of all items.
+     * Remove copies of an item, all or nothing.
+     *
+     * @param item  item to remove
+     * @param count number of copies
+     * @return true if the inventory held at least {@code count} copies and
+     *         they were removed, false (and nothing removed) otherwise
+     */
+    public boolean removeItems(Item item, int count) {
+        if (item == null || count <= 0) {
+            return false;
+        }
+        Bucket<?> bucket = bucketOf(item);
+        int position = bucket.find(item);
+        if (position < 0 || bucket.counts[position] < count) {
+            return false;
+        }
+        int left = bucket.counts[position] - count;
+        bucket.counts[position] = left;
+        if (left == 0) {
+            bucket.removeAt(position);
+            allStacksStale = true;
+        }
+        snapshot = snapshot.withCount(item, left);
+        return true;
+    }
+
+    /**
+     * @param item item to count
+     * @return how many copies of the item this inventory holds
+     */
+    public int countOf(Item item) {
+        Bucket<?> bucket = bucketOf(item);
+        int position = bucket.find(item);
+        return position < 0 ? 0 : bucket.counts[position];
+    }
+
+    /**
+     * Visit every stack, in the order of {@link #getItems()}, without
+     * creating any list. The inventory must not be modified during the
+     * visit.
+     */
+    public void forEachStack(StackVisitor visitor) {
+        for (Bucket<?> bucket : buckets) {
+            for (int i = 0; i < bucket.stacks.size(); i++) {
+                visitor.visit(bucket.stacks.get(i), bucket.counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Take a snapshot of the current contents. O(1): the inventory keeps
+     * its snapshot up to date as it changes, sharing structure with the
+     * earlier ones.
+     *
+     * @return immutable snapshot, unaffected by later changes
+     */
+    public InventorySnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Replace the contents with those of a snapshot (e.g. to rewind).
+     * Takes time proportional to the number of stacks.
+     *
+     * @param saved snapshot taken from this or another inventory
+     */
+    public void restore(InventorySnapshot saved) {
+        for (Bucket<?> bucket : buckets) {
+            bucket.clear();
+        }
+        saved.forEachStack((item, count) -> bucketOf(item).push(item, count));
+        allStacksStale = true;
+        snapshot = saved;
+    }
+
+    /**
+     * Get a read-only view of all items, one entry per stack (Weapons,
+     * then Armor, Potions, Spells and anything else); use
+     * {@link #countOf(Item)} for the number of copies.
      * Callers cannot modify the underlying list directly; they must use
      * {@link #addItem(Item)} or {@link #removeItem(Item)}.
      * @return unmodifiable list of all items
      */
     public List<Item> getItems() {
-        return Collections.unmodifiableList(items);
+        return allView;
     }
 
     /**
-     * @return a new list containing only the Weapons in this inventory.
+     * @return read-only view of the Weapons in this inventory
+     *         (one entry per stack, as for the other typed views).
      */
     public List<Weapon> getWeapons() {
-        List<Weapon> result = new ArrayList<>();
-        for (Item i : items) {
-            if (i instanceof Weapon) {
-                result.add((Weapon) i);
-            }
-        }
-        return result;
+        return weapons.view;
     }
 
     /**
-     * @return a new list containing only the Armor items in this inventory.
+     * @return read-only view of the Armor items in this inventory.
      */
     public List<Armor> getArmors() {
-        List<Armor> result = new ArrayList<>();
-        for (Item i : items) {
-            if (i instanceof Armor) {
-                result.add((Armor) i);
-            }
-        }
-        return result;
+        return armors.view;
     }
 
     /**
-     * @return a new list containing only the Spells in this inventory.
+     * @return read-only view of the Spells in this inventory.
      */
     public List<Spell> getSpells() {
-        List<Spell> result = new ArrayList<>();
-        for (Item i : items) {
-            if (i instanceof Spell) {
-                result.add((Spell) i);
-            }
-        }
-        return result;
+        return spells.view;
     }
 
     /**
-     * @return a new list containing only the Potions in this inventory.
+     * @return read-only view of the Potions in this inventory.
      */
     public List<Potion> getPotions() {
-        List<Potion> result = new ArrayList<>();
-        for (Item i : items) {
-            if (i instanceof Potion) {
-                result.add((Potion) i);
-            }
-        }
-        return result;
+        return potions.view;
     }
 
     /**
@@ -108,6 +317,37 @@ public class Inventory {
      */
     @Override
     public String toString() {
-        return "Inventory{" + items + '}';
+        return "Inventory{" + allView + '}';
+    }
+
+    /**
+     * @return the bucket an item's stack belongs in
+     */
+    private Bucket<?> bucketOf(Item item) {
+        if (item instanceof Weapon) {
+            return weapons;
+        } else if (item instanceof Armor) {
+            return armors;
+        } else if (item instanceof Potion) {
+            return potions;
+        } else if (item instanceof Spell) {
+            return spells;
+        }
+        return others;
+    }
+
+    /**
+     * Rebuild the list of all stacks if a stack was started or ran out
+     * since the last rebuild.
+     */
+    private List<Item> refreshAllStacks() {
+        if (allStacksStale) {
+            allStacks.clear();
+            for (Bucket<?> bucket : buckets) {
+                allStacks.addAll(bucket.stacks);
+            }
+            allStacksStale = false;
+        }
+        return allStacks;
     }
 }
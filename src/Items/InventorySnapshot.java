@@ -0,0 +1,152 @@
+package Items;
+
+import Utility.PersistentIntMap;
+
+/**
+ * Immutable copy of an {@link Inventory}'s contents at one moment, for
+ * autosaves, rewinding, or trying things out in a simulation.
+ *
+ * The stacks are kept in a {@link PersistentIntMap} keyed by catalog id.
+ * An inventory updates its snapshot on every change, which copies only
+ * the few trie nodes on the path to the item and shares the rest with
+ * the previous version, so taking a snapshot just hands out the current
+ * version: O(1), however often it is done, and old snapshots stay valid
+ * after the inventory changes.
+ *
+ * Items without a catalog id are kept in a short immutable linked list
+ * beside the map (they are rare, so updating it by copying the part in
+ * front of the changed stack is fine).
+ */
+public final class InventorySnapshot {
+
+    /**
+     * One stack: an item and how many copies of it are held.
+     */
+    private static final class Stack {
+        final Item item;
+        final int count;
+
+        Stack(Item item, int count) {
+            this.item = item;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Stack of an item without a catalog id, linked to the next one.
+     */
+    private static final class LooseStack {
+        final Stack stack;
+        final LooseStack next;
+
+        LooseStack(Stack stack, LooseStack next) {
+            this.stack = stack;
+            this.next = next;
+        }
+    }
+
+    private static final InventorySnapshot emptySnapshot =
+            new InventorySnapshot(PersistentIntMap.<Stack>empty(), null, 0);
+
+    /**
+     * Stacks of catalog items, by catalog id.
+     */
+    private final PersistentIntMap<Stack> stacks;
+
+    /**
+     * Stacks of items without a catalog id, or null.
+     */
+    private final LooseStack loose;
+    private final int looseCount;
+
+    private InventorySnapshot(PersistentIntMap<Stack> stacks, LooseStack loose, int looseCount) {
+        this.stacks = stacks;
+        this.loose = loose;
+        this.looseCount = looseCount;
+    }
+
+    /**
+     * @return the snapshot of an empty inventory
+     */
+    public static InventorySnapshot empty() {
+        return emptySnapshot;
+    }
+
+    /**
+     * @return how many copies of the item the snapshot holds
+     */
+    public int countOf(Item item) {
+        Stack stack = find(item);
+        return stack == null ? 0 : stack.count;
+    }
+
+    /**
+     * @return number of stacks (distinct items)
+     */
+    public int stackCount() {
+        return stacks.size() + looseCount;
+    }
+
+    /**
+     * @return true if the snapshot holds no items
+     */
+    public boolean isEmpty() {
+        return stackCount() == 0;
+    }
+
+    /**
+     * Visit every stack: catalog items by id, then the others.
+     */
+    public void forEachStack(Inventory.StackVisitor visitor) {
+        stacks.forEach((id, stack) -> visitor.visit(stack.item, stack.count));
+        for (LooseStack entry = loose; entry != null; entry = entry.next) {
+            visitor.visit(entry.stack.item, entry.stack.count);
+        }
+    }
+
+    /**
+     * Return a snapshot with the number of copies of an item changed;
+     * this snapshot is not changed.
+     *
+     * @param item  item whose stack changes
+     * @param count new number of copies (0 drops the stack)
+     * @return the updated snapshot
+     */
+    InventorySnapshot withCount(Item item, int count) {
+        if (item.getId() != Item.noId) {
+            PersistentIntMap<Stack> updated = count == 0
+                    ? stacks.remove(item.getId())
+                    : stacks.put(item.getId(), new Stack(item, count));
+            return new InventorySnapshot(updated, loose, looseCount);
+        }
+        boolean present = find(item) != null;
+        LooseStack rest = present ? without(loose, item) : loose;
+        if (count == 0) {
+            return new InventorySnapshot(stacks, rest, looseCount - (present ? 1 : 0));
+        }
+        return new InventorySnapshot(stacks, new LooseStack(new Stack(item, count), rest),
+                looseCount + (present ? 0 : 1));
+    }
+
+    private Stack find(Item item) {
+        if (item.getId() != Item.noId) {
+            return stacks.get(item.getId());
+        }
+        for (LooseStack entry = loose; entry != null; entry = entry.next) {
+            if (entry.stack.item == item) {
+                return entry.stack;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the list without the item's stack, sharing the part after it
+     */
+    private static LooseStack without(LooseStack entry, Item item) {
+        if (entry.stack.item == item) {
+            return entry.next;
+        }
+        return new LooseStack(entry.stack, without(entry.next, item));
+    }
+}
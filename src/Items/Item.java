@@ -7,6 +7,8 @@ package Items;
  *  - a name (string identifier displayed in menus)
  *  - a price (gold cost)
  *  - a required level (minimum hero level to use/equip)
+ *  - a dense catalog id, assigned by {@link ItemCatalog} when the game
+ *    data is loaded (see {@link #getId()})
  *
  * Concrete subclasses include:
  *  - {@link Weapon}
@@ -34,6 +36,16 @@ public abstract class Item implements TableDisplayable {
      */
     protected final int level;
 
+    /**
+     * Dense id in the {@link ItemCatalog}, or {@link #noId} until registered.
+     */
+    private int id = noId;
+
+    /**
+     * Id of an item that is not (yet) part of a catalog.
+     */
+    public static final int noId = -1;
+
     /**
      * Protected constructor: only subclasses can create items.
      *
@@ -56,6 +68,47 @@ public abstract class Item implements TableDisplayable {
     /** @return the required hero level for this item. */
     public int getLevel()    { return level; }
 
+    /**
+     * @return this item's catalog id (0 to catalog size - 1), or
+     *         {@link #noId} if it was never registered in an {@link ItemCatalog}
+     */
+    public int getId()       { return id; }
+
+    /**
+     * Set the catalog id. Called once by {@link ItemCatalog}, before the
+     * item is put in any hash-based collection.
+     */
+    void assignId(int id) {
+        if (this.id != noId) {
+            throw new IllegalStateException(name + " already has catalog id " + this.id);
+        }
+        this.id = id;
+    }
+
+    /**
+     * Two catalog items are equal when they have the same id; items
+     * without an id are only equal to themselves.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Item)) {
+            return false;
+        }
+        Item item = (Item) other;
+        return id != noId && id == item.id;
+    }
+
+    /**
+     * @return the catalog id, or the identity hash for items without one
+     */
+    @Override
+    public int hashCode() {
+        return id != noId ? id : System.identityHashCode(this);
+    }
+
     /**
      * Default table headers for all items.
      * <p>
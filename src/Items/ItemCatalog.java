@@ -0,0 +1,56 @@
+package Items;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Every item that exists in the game, numbered densely from 0.
+ *
+ * The catalog is built once when the game data is loaded. Registering an
+ * item gives it its id ({@link Item#getId()}), so the rest of the game can
+ * key markets, inventories and other per-item data by a small int, using
+ * plain arrays or primitive maps instead of maps keyed by item objects or
+ * by strings.
+ */
+public final class ItemCatalog {
+
+    /**
+     * Items by id.
+     */
+    private final List<Item> items = new ArrayList<>();
+
+    /**
+     * Register items, giving each the next free id.
+     *
+     * @param newItems items to add; each may only be registered once
+     */
+    public void registerAll(List<? extends Item> newItems) {
+        for (Item item : newItems) {
+            item.assignId(items.size());
+            items.add(item);
+        }
+    }
+
+    /**
+     * @param id catalog id
+     * @return the item with that id
+     */
+    public Item get(int id) {
+        return items.get(id);
+    }
+
+    /**
+     * @return number of items; ids run from 0 to size() - 1
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * @return read-only list of all items, indexed by id
+     */
+    public List<Item> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+}
@@ -2,6 +2,8 @@ import Utility.AllObjectsLoader;
 import Utility.GameData;
 import Game.Game;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 /**
@@ -9,6 +11,8 @@ import java.util.Scanner;
  *
  * Responsibilities:
  *  - load all game data from the resource files
+ *  - pick up an optional pre-baked board file and trade ledger file from
+ *    the command line
  *  - create a shared Scanner for console input
  *  - construct and start the {@link Game} loop
  */
@@ -17,16 +21,25 @@ public class Main {
     /**
      * Standard Java entry point.
      *
-     * @param args command-line arguments (unused)
+     * @param args command-line arguments: optionally the path of a board
+     *             file (see {@code Game.BoardFile}) to play on, then the
+     *             path of a file to record market trades in (see
+     *             {@code Game.TransactionLedger}); an empty argument
+     *             stands for "none"
      */
     public static void main(String[] args) {
         // Load all heroes, monsters, and items from the text files.
         GameData data = AllObjectsLoader.loadAllObjects();
 
+        // An optional board file replaces the randomly generated map.
+        Path boardFile = (args.length > 0 && !args[0].isEmpty()) ? Paths.get(args[0]) : null;
+        // An optional ledger file records every market trade.
+        Path ledgerFile = (args.length > 1 && !args[1].isEmpty()) ? Paths.get(args[1]) : null;
+
         // Use try-with-resources so the Scanner is closed automatically on exit.
         try (Scanner scanner = new Scanner(System.in)) {
             // Create the game coordinator with loaded data and user input.
-            Game game = new Game(data, scanner);
+            Game game = new Game(data, scanner, boardFile, ledgerFile);
             // Hand control over to the Game class.
             game.start();
         }
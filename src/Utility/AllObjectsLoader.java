@@ -5,6 +5,7 @@ import Entities.Monster;
 import Items.Potion;
 import Items.Spell;
 import Items.Armor;
+import Items.ItemCatalog;
 import Items.Weapon;
 
 import javax.swing.*;
@@ -20,6 +21,7 @@ import java.util.List;
  * This is the single entry point for:
  *  - reading the data files under src/resources/
  *  - delegating parsing to the various *Loader classes
+ *  - giving every loaded item its catalog id
  *  - returning one aggregated GameData object to the rest of the game
  *
  * The class is final and has a private constructor to prevent instantiation:
@@ -82,6 +84,14 @@ public final class AllObjectsLoader {
         } catch (IOException e) {
             e.printStackTrace();
         }
-        return new GameData(allHeroes, allMonsters, allArmors, allWeapons, allPotions, allSpells);
+
+        // ----- Item ids, in a fixed order: weapons, armor, potions, spells -----
+        ItemCatalog catalog = new ItemCatalog();
+        catalog.registerAll(allWeapons);
+        catalog.registerAll(allArmors);
+        catalog.registerAll(allPotions);
+        catalog.registerAll(allSpells);
+
+        return new GameData(allHeroes, allMonsters, allArmors, allWeapons, allPotions, allSpells, catalog);
     }
 }
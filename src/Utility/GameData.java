@@ -3,6 +3,7 @@ package Utility;
 import Entities.Hero;
 import Entities.Monster;
 import Items.Armor;
+import Items.ItemCatalog;
 import Items.Potion;
 import Items.Spell;
 import Items.Weapon;
@@ -17,6 +18,7 @@ import java.util.List;
  *  - show available heroes for party selection
  *  - spawn monsters for encounters
  *  - populate markets with armor, weapons, potions, spells, etc.
+ *  - look items up by their catalog id
  */
 public final class GameData {
 
@@ -50,6 +52,11 @@ public final class GameData {
      */
     private List<Spell> spells;
 
+    /**
+     * Every loaded item, numbered by catalog id.
+     */
+    private ItemCatalog catalog;
+
     /**
      * Construct a new GameData container with all lists already loaded.
      *
@@ -59,19 +66,22 @@ public final class GameData {
      * @param weapons  list of all weapon items
      * @param potions  list of all potions
      * @param spells   list of all spells
+     * @param catalog  catalog in which all the items above are registered
      */
     public GameData(List<Hero> heroes,
                     List<Monster> monsters,
                     List<Armor> armors,
                     List<Weapon> weapons,
                     List<Potion> potions,
-                    List<Spell> spells) {
+                    List<Spell> spells,
+                    ItemCatalog catalog) {
         this.heroes = heroes;
         this.monsters = monsters;
         this.armors = armors;
         this.weapons = weapons;
         this.potions = potions;
         this.spells = spells;
+        this.catalog = catalog;
     }
 
     /**
@@ -115,4 +125,11 @@ public final class GameData {
     public List<Spell> getSpells() {
         return spells;
     }
+
+    /**
+     * @return the catalog of all items, indexed by item id.
+     */
+    public ItemCatalog getCatalog() {
+        return catalog;
+    }
 }
@@ -0,0 +1,234 @@
+package Utility;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from non-negative int keys to int values, stored in two
+ * primitive arrays with open addressing (linear probing).
+ *
+ * Meant for item ids and similar dense keys: unlike a
+ * {@code HashMap<Integer, Integer>} it allocates nothing per entry and never
+ * boxes, so lookups and updates in menus and trades produce no garbage.
+ */
+public final class IntIntHashMap {
+
+    /**
+     * Marker for an unused slot in {@link #keys}.
+     */
+    private static final int freeKey = -1;
+
+    /**
+     * Callback for {@link #forEach(Visitor)}.
+     */
+    public interface Visitor {
+        /**
+         * Called once per entry.
+         *
+         * @param key   entry key
+         * @param value entry value
+         */
+        void visit(int key, int value);
+    }
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * Create an empty map.
+     */
+    public IntIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * Create an empty map sized for about {@code expected} entries.
+     *
+     * @param expected expected number of entries
+     */
+    public IntIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, freeKey);
+    }
+
+    /**
+     * @return the value stored for {@code key}, or {@code defaultValue}
+     */
+    public int get(int key, int defaultValue) {
+        int index = find(key);
+        return keys[index] == freeKey ? defaultValue : values[index];
+    }
+
+    /**
+     * @return true if the map has an entry for {@code key}
+     */
+    public boolean containsKey(int key) {
+        return keys[find(checkKey(key))] != freeKey;
+    }
+
+    /**
+     * Store a value, replacing any previous one.
+     *
+     * @param key   non-negative key
+     * @param value value to store
+     */
+    public void put(int key, int value) {
+        int index = find(checkKey(key));
+        if (keys[index] == freeKey) {
+            keys[index] = key;
+            values[index] = value;
+            grow();
+        } else {
+            values[index] = value;
+        }
+    }
+
+    /**
+     * Add {@code delta} to the value for {@code key} (starting from 0 when
+     * absent). An entry whose value reaches 0 is removed.
+     *
+     * @return the new value
+     */
+    public int addTo(int key, int delta) {
+        int index = find(checkKey(key));
+        if (keys[index] == freeKey) {
+            if (delta != 0) {
+                keys[index] = key;
+                values[index] = delta;
+                grow();
+            }
+            return delta;
+        }
+        int value = values[index] + delta;
+        if (value == 0) {
+            removeAt(index);
+        } else {
+            values[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Remove the entry for {@code key}, if any.
+     *
+     * @return true if an entry was removed
+     */
+    public boolean remove(int key) {
+        int index = find(checkKey(key));
+        if (keys[index] == freeKey) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * @return number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the map has no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public void clear() {
+        Arrays.fill(keys, freeKey);
+        size = 0;
+    }
+
+    /**
+     * Visit every entry, in no particular order. The map must not be
+     * modified during the visit.
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != freeKey) {
+                visitor.visit(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the slot holding {@code key}, or the free slot where it would go
+     */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != freeKey && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Count a new entry and double the table once it is half full.
+     */
+    private void grow() {
+        if (++size * 2 <= keys.length) {
+            return;
+        }
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, freeKey);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != freeKey) {
+                int index = find(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Empty a slot and shift later entries of the same probe run back,
+     * so lookups never stop early at the hole.
+     */
+    private void removeAt(int index) {
+        int mask = keys.length - 1;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != freeKey) {
+            int home = mix(keys[next]) & mask;
+            // Move the entry if its home slot is not in (hole, next].
+            boolean movable = (hole <= next) ? (home <= hole || home > next)
+                                             : (home <= hole && home > next);
+            if (movable) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = freeKey;
+        size--;
+    }
+
+    private static int checkKey(int key) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Keys must be non-negative: " + key);
+        }
+        return key;
+    }
+
+    /**
+     * Spread consecutive keys over the table (Murmur3 finalizer).
+     */
+    private static int mix(int key) {
+        int h = key * 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+}
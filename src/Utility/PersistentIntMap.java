@@ -0,0 +1,295 @@
+package Utility;
+
+/**
+ * Immutable map from int keys to values, stored as a bitmapped trie (a
+ * hash array mapped trie keyed by the int itself, so there are no
+ * collisions).
+ *
+ * Each level of the trie consumes {@link #bits} bits of the key, lowest
+ * bits first. A node keeps a 32-bit bitmap of the children it has and a
+ * compact array holding only those children, so small dense keys (item
+ * ids) fit in one or two nodes. {@link #put} and {@link #remove} return a
+ * new map that copies only the nodes on the path to the key (at most
+ * seven small arrays) and shares everything else with the old map, so
+ * keeping old versions around is cheap and never needs a copy.
+ *
+ * @param <V> value type
+ */
+public final class PersistentIntMap<V> {
+
+    /**
+     * Key bits consumed per trie level.
+     */
+    private static final int bits = 5;
+    private static final int mask = (1 << bits) - 1;
+
+    /**
+     * Callback for {@link #forEach(Visitor)}.
+     */
+    public interface Visitor<V> {
+        /**
+         * Called once per entry.
+         *
+         * @param key   entry key
+         * @param value entry value
+         */
+        void visit(int key, V value);
+    }
+
+    private static final PersistentIntMap<Object> emptyMap = new PersistentIntMap<>(null, 0);
+
+    /**
+     * Trie node. {@code children} holds, for every bit set in
+     * {@code bitmap}, either a {@link Node} (an inner branch) or a
+     * {@link Leaf} (an entry).
+     */
+    private static final class Node {
+        final int bitmap;
+        final Object[] children;
+
+        Node(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+    }
+
+    private static final class Leaf {
+        final int key;
+        final Object value;
+
+        Leaf(int key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final Node root;
+    private final int size;
+
+    private PersistentIntMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) emptyMap;
+    }
+
+    /**
+     * @return the value stored for {@code key}, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        Node node = root;
+        int shift = 0;
+        while (node != null) {
+            int bit = 1 << ((key >>> shift) & mask);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object child = node.children[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (child instanceof Leaf) {
+                Leaf leaf = (Leaf) child;
+                return leaf.key == key ? (V) leaf.value : null;
+            }
+            node = (Node) child;
+            shift += bits;
+        }
+        return null;
+    }
+
+    /**
+     * @return number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the map has no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Return a map with {@code key} mapped to {@code value}. This map is
+     * not changed.
+     *
+     * @param value value to store, not null
+     * @return the new map (or this map, if the value was already stored)
+     */
+    public PersistentIntMap<V> put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        if (root == null) {
+            return new PersistentIntMap<>(new Node(bitOf(key, 0), new Object[] {new Leaf(key, value)}), 1);
+        }
+        boolean[] added = new boolean[1];
+        Node updated = put(root, 0, key, value, added);
+        return updated == root ? this : new PersistentIntMap<>(updated, size + (added[0] ? 1 : 0));
+    }
+
+    /**
+     * Return a map without an entry for {@code key}. This map is not
+     * changed.
+     *
+     * @return the new map (or this map, if it had no entry for the key)
+     */
+    public PersistentIntMap<V> remove(int key) {
+        if (root == null) {
+            return this;
+        }
+        Object updated = remove(root, 0, key);
+        if (updated == root) {
+            return this;
+        }
+        return size == 1 ? empty() : new PersistentIntMap<>(asNode(updated, 0), size - 1);
+    }
+
+    /**
+     * Visit every entry, in ascending order of the key's low bits.
+     */
+    public void forEach(Visitor<V> visitor) {
+        if (root != null) {
+            visit(root, visitor);
+        }
+    }
+
+    private static Node put(Node node, int shift, int key, Object value, boolean[] added) {
+        int bit = bitOf(key, shift);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) == 0) {
+            added[0] = true;
+            Object[] children = new Object[node.children.length + 1];
+            System.arraycopy(node.children, 0, children, 0, index);
+            children[index] = new Leaf(key, value);
+            System.arraycopy(node.children, index, children, index + 1, node.children.length - index);
+            return new Node(node.bitmap | bit, children);
+        }
+        Object child = node.children[index];
+        Object replacement;
+        if (child instanceof Leaf) {
+            Leaf leaf = (Leaf) child;
+            if (leaf.key == key) {
+                if (leaf.value == value) {
+                    return node;
+                }
+                replacement = new Leaf(key, value);
+            } else {
+                added[0] = true;
+                replacement = split(leaf, new Leaf(key, value), shift + bits);
+            }
+        } else {
+            replacement = put((Node) child, shift + bits, key, value, added);
+            if (replacement == child) {
+                return node;
+            }
+        }
+        Object[] children = node.children.clone();
+        children[index] = replacement;
+        return new Node(node.bitmap, children);
+    }
+
+    /**
+     * Build the branch holding two leaves whose keys agree below
+     * {@code shift}.
+     */
+    private static Node split(Leaf a, Leaf b, int shift) {
+        int bitA = bitOf(a.key, shift);
+        int bitB = bitOf(b.key, shift);
+        if (bitA == bitB) {
+            return new Node(bitA, new Object[] {split(a, b, shift + bits)});
+        }
+        return new Node(bitA | bitB, Integer.compareUnsigned(bitA, bitB) < 0
+                ? new Object[] {a, b} : new Object[] {b, a});
+    }
+
+    /**
+     * @return the node without the key's entry: the same node if the key
+     *         is absent, a {@link Leaf} if only one entry is left below
+     *         (so the parent can pull it up), or null if nothing is left
+     */
+    private static Object remove(Node node, int shift, int key) {
+        int bit = bitOf(key, shift);
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        Object child = node.children[index];
+        Object replacement;
+        if (child instanceof Leaf) {
+            if (((Leaf) child).key != key) {
+                return node;
+            }
+            replacement = null;
+        } else {
+            replacement = remove((Node) child, shift + bits, key);
+            if (replacement == child) {
+                return node;
+            }
+        }
+        if (replacement == null) {
+            if (node.children.length == 1) {
+                return null;
+            }
+            if (node.children.length == 2 && node.children[1 - index] instanceof Leaf) {
+                return node.children[1 - index];
+            }
+            Object[] children = new Object[node.children.length - 1];
+            System.arraycopy(node.children, 0, children, 0, index);
+            System.arraycopy(node.children, index + 1, children, index, children.length - index);
+            return new Node(node.bitmap & ~bit, children);
+        }
+        if (replacement instanceof Leaf && node.children.length == 1) {
+            return replacement;
+        }
+        Object[] children = node.children.clone();
+        children[index] = replacement;
+        return new Node(node.bitmap, children);
+    }
+
+    /**
+     * Wrap a lone leaf pulled up to the root back into a node.
+     */
+    private static Node asNode(Object entry, int shift) {
+        if (entry instanceof Node) {
+            return (Node) entry;
+        }
+        Leaf leaf = (Leaf) entry;
+        return new Node(bitOf(leaf.key, shift), new Object[] {leaf});
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void visit(Node node, Visitor<V> visitor) {
+        for (Object child : node.children) {
+            if (child instanceof Leaf) {
+                Leaf leaf = (Leaf) child;
+                visitor.visit(leaf.key, (V) leaf.value);
+            } else {
+                visit((Node) child, visitor);
+            }
+        }
+    }
+
+    private static int bitOf(int key, int shift) {
+        return 1 << ((key >>> shift) & mask);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (out.length() > 1) {
+                out.append(", ");
+            }
+            out.append(key).append('=').append(value);
+        });
+        return out.append('}').toString();
+    }
+}